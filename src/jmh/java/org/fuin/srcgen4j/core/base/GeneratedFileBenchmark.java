@@ -0,0 +1,138 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.base;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures {@link GeneratedFile#persist(byte[], int, boolean)} and {@link GeneratedFile#persist(boolean)} for a number of files whose
+ * content is either unchanged or changed on every invocation.
+ */
+// CHECKSTYLE:OFF
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GeneratedFileBenchmark {
+
+    @Param({ "10", "1000", "100000" })
+    public int files;
+
+    @Param({ "false", "true" })
+    public boolean changed;
+
+    @Param({ "false", "true" })
+    public boolean manifest;
+
+    private File dir;
+
+    private byte[][] contents;
+
+    private GeneratedFileManifest fileManifest;
+
+    private int invocation;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("srcgen4j-bench-").toFile().getCanonicalFile();
+        contents = new byte[2][];
+        contents[0] = content(0);
+        contents[1] = content(1);
+        fileManifest = manifest ? GeneratedFileManifest.load(dir) : null;
+        for (int i = 0; i < files; i++) {
+            final GeneratedFile genFile = new GeneratedFile(file(i), null, false, fileManifest);
+            genFile.persist(contents[0], contents[0].length, false);
+        }
+        invocation = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Benchmark
+    public int persistInMemory() {
+        final byte[] content = next();
+        int count = 0;
+        for (int i = 0; i < files; i++) {
+            final GeneratedFile genFile = new GeneratedFile(file(i), null, false, fileManifest);
+            genFile.persist(content, content.length, false);
+            if (genFile.isChanged()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int persistTmpFile() throws IOException {
+        final byte[] content = next();
+        int count = 0;
+        for (int i = 0; i < files; i++) {
+            final GeneratedFile genFile = new GeneratedFile(file(i), null, false, fileManifest);
+            try (final OutputStream out = genFile.createTmpOutputStream()) {
+                out.write(content);
+            }
+            genFile.persist(false);
+            if (genFile.isChanged()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private byte[] next() {
+        if (changed) {
+            invocation++;
+        }
+        return contents[invocation % 2];
+    }
+
+    private File file(final int index) {
+        return new File(dir, "Class" + index + ".java");
+    }
+
+    private static byte[] content(final int variant) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("package a.b.c;\n\npublic class Example {\n");
+        for (int i = 0; i < 50; i++) {
+            sb.append("    private String field").append(i).append(" = \"").append(variant).append("\";\n");
+        }
+        sb.append("}\n");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+}
+// CHECKSTYLE:ON
@@ -0,0 +1,199 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.emf;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.ENamedElement;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.eclipse.emf.ecore.EcorePackage;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.fuin.srcgen4j.commons.ArtifactFactory;
+import org.fuin.srcgen4j.commons.ArtifactFactoryConfig;
+import org.fuin.srcgen4j.commons.GenerateException;
+import org.fuin.srcgen4j.commons.GeneratedArtifact;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the two pass {@link AbstractEMFGenerator#generate(boolean)} for a synthetic Ecore model with a given number of classes (Each
+ * with an attribute and a reference) and a given number of artifact factories. The factories don't write anything, so only model traversal
+ * and factory dispatch are measured.
+ */
+// CHECKSTYLE:OFF
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EMFGeneratorBenchmark {
+
+    private static final Class<?>[] TYPES = new Class<?>[] { EClass.class, EAttribute.class, EReference.class, ENamedElement.class };
+
+    @Param({ "10", "1000", "100000" })
+    public int notifiers;
+
+    @Param({ "1", "10", "50" })
+    public int factories;
+
+    private ResourceSet resourceSet;
+
+    private CountingGenerator generator;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        resourceSet = createModel(notifiers);
+        final List<ArtifactFactory<Notifier>> list = new ArrayList<>();
+        for (int i = 0; i < factories; i++) {
+            list.add(new CountingFactory(TYPES[i % TYPES.length]));
+        }
+        generator = new CountingGenerator(list);
+    }
+
+    @Benchmark
+    public int generate() throws GenerateException {
+        generator.count = 0;
+        generator.generate(resourceSet, false);
+        return generator.count;
+    }
+
+    static ResourceSet createModel(final int classes) {
+        final EcoreFactory factory = EcoreFactory.eINSTANCE;
+        final EPackage pkg = factory.createEPackage();
+        pkg.setName("benchmark");
+        pkg.setNsURI("http://www.fuin.org/srcgen4j/benchmark");
+        EClass previous = null;
+        for (int i = 0; i < classes; i++) {
+            final EClass eClass = factory.createEClass();
+            eClass.setName("Class" + i);
+            final EAttribute attr = factory.createEAttribute();
+            attr.setName("name");
+            attr.setEType(EcorePackage.Literals.ESTRING);
+            eClass.getEStructuralFeatures().add(attr);
+            if (previous != null) {
+                final EReference ref = factory.createEReference();
+                ref.setName("previous");
+                ref.setEType(previous);
+                eClass.getEStructuralFeatures().add(ref);
+            }
+            pkg.getEClassifiers().add(eClass);
+            previous = eClass;
+        }
+        final ResourceSet resourceSet = new ResourceSetImpl();
+        final Resource resource = new ResourceImpl(URI.createURI("benchmark.ecore"));
+        resource.getContents().add(pkg);
+        resourceSet.getResources().add(resource);
+        return resourceSet;
+    }
+
+    /**
+     * Generator that dispatches every notifier to all factories for it's type.
+     */
+    static final class CountingGenerator extends AbstractEMFGenerator<Object> {
+
+        private final List<ArtifactFactory<Notifier>> factories;
+
+        int count;
+
+        CountingGenerator(final List<ArtifactFactory<Notifier>> factories) {
+            super();
+            this.factories = factories;
+        }
+
+        @Override
+        protected final boolean wants(final Notifier notifier) {
+            for (final ArtifactFactory<Notifier> factory : factories) {
+                if (factory.getModelType().isInstance(notifier)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        protected final void generate(final Map<String, Object> context, final Notifier notifier, final boolean incremental,
+                final boolean preparationRun) throws GenerateException {
+            for (final ArtifactFactory<Notifier> factory : factories) {
+                if (factory.getModelType().isInstance(notifier)) {
+                    factory.create(notifier, context, preparationRun);
+                    count++;
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Factory that creates an empty artifact list.
+     */
+    static final class CountingFactory implements ArtifactFactory<Notifier> {
+
+        private final Class<?> modelType;
+
+        CountingFactory(final Class<?> modelType) {
+            super();
+            this.modelType = modelType;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public final Class<? extends Notifier> getModelType() {
+            return (Class<? extends Notifier>) modelType;
+        }
+
+        @Override
+        public final void init(final ArtifactFactoryConfig config) {
+            // Not used
+        }
+
+        @Override
+        public final boolean isIncremental() {
+            return true;
+        }
+
+        @Override
+        public final List<GeneratedArtifact> create(final Notifier notifier, final Map<String, Object> context, final boolean preparationRun)
+                throws GenerateException {
+            if (notifier instanceof ENamedElement && ((ENamedElement) notifier).getName() == null) {
+                throw new GenerateException("Name is missing: " + notifier);
+            }
+            return Collections.emptyList();
+        }
+
+    }
+
+}
+// CHECKSTYLE:ON
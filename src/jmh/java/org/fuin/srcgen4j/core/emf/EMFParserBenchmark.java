@@ -0,0 +1,131 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.emf;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures loading and resolving a synthetic Ecore model with {@link AbstractEMFParser}. Every file contains a package with a fixed number
+ * of classes and the first class of every file extends a class of the previous file, so resolving has to follow cross file references.
+ */
+// CHECKSTYLE:OFF
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EMFParserBenchmark {
+
+    private static final String EXTENSION = "ecore";
+
+    private static final int CLASSES_PER_FILE = 10;
+
+    @Param({ "10", "1000", "10000" })
+    public int files;
+
+    @Param({ "1", "4" })
+    public int threads;
+
+    private File dir;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Resource.Factory.Registry.INSTANCE.getExtensionToFactoryMap().put(EXTENSION, new XMIResourceFactoryImpl());
+        dir = Files.createTempDirectory("srcgen4j-bench-").toFile().getCanonicalFile();
+
+        final EcoreFactory factory = EcoreFactory.eINSTANCE;
+        final ResourceSet resourceSet = new ResourceSetImpl();
+        EClass previous = null;
+        for (int i = 0; i < files; i++) {
+            final EPackage pkg = factory.createEPackage();
+            pkg.setName("pkg" + i);
+            pkg.setNsURI("http://www.fuin.org/srcgen4j/benchmark/pkg" + i);
+            for (int j = 0; j < CLASSES_PER_FILE; j++) {
+                final EClass eClass = factory.createEClass();
+                eClass.setName("Class" + j);
+                pkg.getEClassifiers().add(eClass);
+            }
+            if (previous != null) {
+                ((EClass) pkg.getEClassifiers().get(0)).getESuperTypes().add(previous);
+            }
+            previous = (EClass) pkg.getEClassifiers().get(0);
+            final Resource resource = resourceSet.createResource(URI.createFileURI(new File(dir, "pkg" + i + "." + EXTENSION).getPath()));
+            resource.getContents().add(pkg);
+        }
+        for (final Resource resource : resourceSet.getResources()) {
+            resource.save(Collections.emptyMap());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Benchmark
+    public ResourceSet loadAndResolve() {
+        final LoadingParser parser = new LoadingParser(Collections.singletonList(dir), threads);
+        return parser.loadAndResolve();
+    }
+
+    /**
+     * Parser that only loads and resolves the model files.
+     */
+    static final class LoadingParser extends AbstractEMFParser<Object> {
+
+        LoadingParser(final List<File> modelDirs, final int threads) {
+            super(Object.class, modelDirs, EXTENSION);
+            setThreads(threads);
+        }
+
+        ResourceSet loadAndResolve() {
+            parseModel();
+            resolveProxies();
+            if (isError() || !isModelFullyResolved()) {
+                throw new IllegalStateException("Benchmark model is invalid");
+            }
+            return getResourceSet();
+        }
+
+    }
+
+}
+// CHECKSTYLE:ON
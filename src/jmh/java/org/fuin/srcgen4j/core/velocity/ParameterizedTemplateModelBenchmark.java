@@ -0,0 +1,74 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.velocity;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures {@link ParameterizedTemplateModel#create(File)} for a synthetic model with a growing number of target files.
+ */
+// CHECKSTYLE:OFF
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParameterizedTemplateModelBenchmark {
+
+    @Param({ "10", "1000", "100000" })
+    public int targetFiles;
+
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        final TargetFile[] files = new TargetFile[targetFiles];
+        for (int i = 0; i < targetFiles; i++) {
+            files[i] = new TargetFile("a/b/c", "Class" + i + ".java", new Argument("name", "Class" + i),
+                    new Argument("pkg", "a.b.c"));
+        }
+        final ParameterizedTemplateModel model = new ParameterizedTemplateModel("benchmark.ptg.java", files);
+        model.addArgument(new Argument("author", "benchmark"));
+        file = File.createTempFile("srcgen4j-bench-", ".ptg.xml");
+        model.writeToXml(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file.toPath());
+    }
+
+    @Benchmark
+    public ParameterizedTemplateModel create() {
+        return ParameterizedTemplateModel.create(file);
+    }
+
+}
+// CHECKSTYLE:ON
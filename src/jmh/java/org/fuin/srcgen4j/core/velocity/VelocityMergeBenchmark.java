@@ -0,0 +1,140 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.velocity;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.velocity.VelocityContext;
+import org.fuin.srcgen4j.commons.DefaultContext;
+import org.fuin.srcgen4j.commons.GenerateException;
+import org.fuin.srcgen4j.commons.SrcGen4JConfig;
+import org.fuin.srcgen4j.core.base.GeneratedFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures {@link VelocityGenerator#merge(VelocityContext, String, String, String, boolean)} for a synthetic template that is rendered
+ * into a growing number of files. All runs after the first one produce unchanged files.
+ */
+// CHECKSTYLE:OFF
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class VelocityMergeBenchmark {
+
+    private static final String TEMPLATE = "benchmark.vm";
+
+    @Param({ "10", "1000", "100000" })
+    public int files;
+
+    @Param({ "false", "true" })
+    public boolean inMemory;
+
+    private File dir;
+
+    private MergeGenerator generator;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        dir = Files.createTempDirectory("srcgen4j-bench-").toFile().getCanonicalFile();
+        final File templateDir = new File(dir, "templates");
+        templateDir.mkdirs();
+        FileUtils.write(new File(templateDir, TEMPLATE), "package ${pkg};\n\npublic class ${name} {\n#foreach($i in [1..20])\n"
+                + "    private String field$i = \"${name}\";\n#end\n}\n", StandardCharsets.UTF_8);
+
+        final File configFile = new File(dir, "srcgen4j-config.xml");
+        FileUtils.write(configFile, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<srcgen4j-config xmlns=\"http://www.fuin.org/srcgen4j/commons/0.4.3\"\n"
+                + "                 xmlns:velo=\"http://www.fuin.org/srcgen4j/core/velocity/0.4.3\">\n" + "  <projects>\n"
+                + "    <project name=\"bench\" path=\"" + dir + "\" maven=\"false\">\n"
+                + "      <folder name=\"out\" path=\"out\" create=\"true\" override=\"true\" clean=\"false\" />\n" + "    </project>\n"
+                + "  </projects>\n" + "  <parsers>\n"
+                + "    <parser name=\"ptp\" class=\"org.fuin.srcgen4j.core.velocity.ParameterizedTemplateParser\">\n"
+                + "      <config><velo:parameterized-template-parser modelPath=\"" + templateDir + "\" templatePath=\"" + templateDir
+                + "\" /></config>\n" + "    </parser>\n" + "  </parsers>\n" + "  <generators>\n"
+                + "    <generator name=\"bench\" class=\"org.fuin.srcgen4j.core.velocity.ParameterizedTemplateGenerator\"\n"
+                + "               parser=\"ptp\" project=\"bench\" folder=\"out\">\n"
+                + "      <config><velo:parameterized-template-generator templatePath=\"" + templateDir + "\" inMemory=\"" + inMemory
+                + "\" /></config>\n" + "      <artifact name=\"file\" />\n" + "    </generator>\n" + "  </generators>\n"
+                + "</srcgen4j-config>\n", StandardCharsets.UTF_8);
+
+        final SrcGen4JConfig config = PTGenHelper.createAndInit(new DefaultContext(), configFile);
+        generator = new MergeGenerator(files);
+        generator.initialize(config.getGenerators().findByName("bench"));
+
+        // Create the files once, so the benchmark measures the usual incremental case
+        generator.generate(false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        VelocityEngineCache.invalidateAll();
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Benchmark
+    public int merge() throws GenerateException {
+        generator.generate(false);
+        return generator.changed;
+    }
+
+    /**
+     * Renders the benchmark template into a given number of files.
+     */
+    static final class MergeGenerator extends VelocityGenerator<Object> {
+
+        private final int files;
+
+        int changed;
+
+        MergeGenerator(final int files) {
+            super();
+            this.files = files;
+        }
+
+        @Override
+        protected final void generateIntern() throws GenerateException {
+            changed = 0;
+            for (int i = 0; i < files; i++) {
+                final VelocityContext context = new VelocityContext();
+                context.put("pkg", "a.b.c");
+                context.put("name", "Class" + i);
+                final GeneratedFile genFile = merge(context, "file", TEMPLATE, "a/b/c/Class" + i + ".java", false);
+                if (genFile != null && genFile.isChanged()) {
+                    changed++;
+                }
+            }
+        }
+
+    }
+
+}
+// CHECKSTYLE:ON
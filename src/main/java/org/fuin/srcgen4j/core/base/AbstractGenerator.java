@@ -17,11 +17,12 @@
  */
 package org.fuin.srcgen4j.core.base;
 
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.validation.constraints.NotNull;
 
@@ -52,11 +53,17 @@ public abstract class AbstractGenerator<MODEL, CONFIG> implements Generator<MODE
 
     private MODEL model;
 
+    private final Map<File, GeneratedFileManifest> manifests;
+
+    /** Stage for asynchronous writes - Only set while generating and if enabled. */
+    private volatile AsyncWriteStage writeStage;
+
     /**
      * Default constructor.
      */
     protected AbstractGenerator() {
         super();
+        manifests = new ConcurrentHashMap<>();
     }
 
     @Override
@@ -107,11 +114,110 @@ public abstract class AbstractGenerator<MODEL, CONFIG> implements Generator<MODE
         this.model = model;
 
         LOG.info("Starting generation: {}", name);
-        generate(incremental);
+        final int writeThreads = getWriteThreads();
+        if (writeThreads > 0) {
+            LOG.debug("Writing files with {} threads", writeThreads);
+            writeStage = new AsyncWriteStage(name + "-write", writeThreads, getWriteQueueCapacity());
+        }
+        final MetricsListener metrics = Metrics.getListener();
+        final long start = System.nanoTime();
+        try {
+            generate(incremental);
+            flush();
+            if (metrics != null) {
+                metrics.generated(name, System.nanoTime() - start);
+            }
+        } finally {
+            if (writeStage != null) {
+                writeStage.close();
+                writeStage = null;
+            }
+            saveManifests();
+        }
         LOG.info("Generation finished: {}", name);
 
     }
 
+    /**
+     * Determines if a {@link GeneratedFileManifest} should be maintained in every output directory. This allows detecting unchanged files
+     * without reading them. Default is FALSE.
+     * 
+     * @return TRUE if the manifest should be used, else FALSE.
+     */
+    // CHECKSTYLE:OFF Empty methods do not violate the 'design for extension'
+    // principle
+    protected boolean isManifestEnabled() {
+        // CHECKSTYLE:ON
+        return false;
+    }
+
+    /**
+     * Determines if generated content is compared with the existing file in memory and written directly to the target file. This avoids
+     * creating, comparing and renaming a temporary file for every unchanged file. Default is FALSE.
+     * 
+     * @return TRUE if the in-memory mode should be used, else FALSE.
+     */
+    // CHECKSTYLE:OFF Empty methods do not violate the 'design for extension'
+    // principle
+    protected boolean isInMemoryEnabled() {
+        // CHECKSTYLE:ON
+        return false;
+    }
+
+    /**
+     * Returns the number of threads used for writing artifacts asynchronously with {@link #write(GeneratedArtifact)}. Default is 0. Only
+     * generators that hand over complete artifacts to {@link #write(GeneratedArtifact)} benefit from this. The velocity generators merge
+     * templates directly into the target file and use their <code>threads</code> attribute to overlap rendering and writing instead.
+     * 
+     * @return Number of I/O threads or 0 if artifacts are written synchronously by the calling thread.
+     */
+    // CHECKSTYLE:OFF Empty methods do not violate the 'design for extension'
+    // principle
+    protected int getWriteThreads() {
+        // CHECKSTYLE:ON
+        return 0;
+    }
+
+    /**
+     * Returns the maximum number of artifacts waiting to be written asynchronously. If the limit is reached, {@link #write(GeneratedArtifact)}
+     * blocks until an I/O thread is ready. Default is {@link AsyncWriteStage#DEFAULT_CAPACITY}.
+     * 
+     * @return Maximum number of pending writes - Must be greater than zero.
+     */
+    // CHECKSTYLE:OFF Empty methods do not violate the 'design for extension'
+    // principle
+    protected int getWriteQueueCapacity() {
+        // CHECKSTYLE:ON
+        return AsyncWriteStage.DEFAULT_CAPACITY;
+    }
+
+    /**
+     * Waits until all artifacts passed to {@link #write(GeneratedArtifact)} are written. This is done automatically at the end of the
+     * generation and only required if a sub class needs the files on disk earlier. Does nothing if artifacts are written synchronously.
+     * 
+     * @throws GenerateException
+     *             Writing at least one artifact failed.
+     */
+    protected final void flush() throws GenerateException {
+        final AsyncWriteStage stage = writeStage;
+        if (stage != null) {
+            stage.await();
+        }
+    }
+
+    private GeneratedFileManifest getManifest(final File dir) {
+        if (!isManifestEnabled()) {
+            return null;
+        }
+        return manifests.computeIfAbsent(dir, GeneratedFileManifest::load);
+    }
+
+    private void saveManifests() {
+        for (final GeneratedFileManifest manifest : manifests.values()) {
+            manifest.save();
+        }
+    }
+
     /**
      * Returns the configuration.
      * 
@@ -175,7 +281,7 @@ public abstract class AbstractGenerator<MODEL, CONFIG> implements Generator<MODE
         // Make sure the folder exists
         if (!dir.exists()) {
             if (folder.isCreate()) {
-                dir.mkdirs();
+                createDirectories(dir);
             } else {
                 throw new IllegalStateException("Directory '" + dir + "' does not exist, but configuration does not allow creation: "
                         + "<folder name=\"" + folder.getName() + "\" create=\"false\" ... />");
@@ -183,19 +289,39 @@ public abstract class AbstractGenerator<MODEL, CONFIG> implements Generator<MODE
         }
         // Make sure the parent directory for the file exists
         if (!file.getParentFile().exists()) {
-            file.getParentFile().mkdirs();
+            createDirectories(file.getParentFile());
         }
         if (file.exists() && !folder.overrideAllowed(file)) {
             // Skip file because override is not allowed
+            final MetricsListener metrics = Metrics.getListener();
+            if (metrics != null) {
+                metrics.skipped(file);
+            }
             return new GeneratedFile(file, logInfo, true);
         }
 
-        return new GeneratedFile(file, logInfo);
+        return new GeneratedFile(file, logInfo, false, getManifest(dir));
 
     }
 
     /**
-     * Writes a generated artifact to a file.
+     * Creates a directory including all non existing parent directories. Other than {@link File#mkdirs()} this does not fail if another
+     * thread creates one of the directories at the same time, which happens with asynchronous writes or parallel rendering.
+     * 
+     * @param dir
+     *            Directory to create.
+     */
+    static void createDirectories(final File dir) {
+        try {
+            Files.createDirectories(dir.toPath());
+        } catch (final IOException ex) {
+            throw new RuntimeException("Couldn't create directory: " + dir, ex);
+        }
+    }
+
+    /**
+     * Writes a generated artifact to a file. If asynchronous writes are enabled (See {@link #getWriteThreads()}) the artifact is only
+     * queued and errors are reported by a later call or at the end of the generation.
      * 
      * @param artifact
      *            Artifact to persist.
@@ -207,16 +333,29 @@ public abstract class AbstractGenerator<MODEL, CONFIG> implements Generator<MODE
 
         Contract.requireArgNotNull("artifact", artifact);
 
+        final AsyncWriteStage stage = writeStage;
+        if (stage == null) {
+            writeIntern(artifact);
+        } else {
+            stage.submit(() -> writeIntern(artifact));
+        }
+    }
+
+    private void writeIntern(final GeneratedArtifact artifact) throws GenerateException {
         final GeneratedFile genFile = getTargetFile(artifact.getName(), artifact.getPathAndName(), null);
         if (genFile.isSkip()) {
             LOG.debug("Omitted already existing file: {} [{}]", genFile, artifact);
         } else {
             LOG.debug("Writing file:  {} [{}]", genFile, artifact);
             try {
-                try (final OutputStream out = new BufferedOutputStream(new FileOutputStream(genFile.getTmpFile()))) {
-                    out.write(artifact.getData());
+                if (isInMemoryEnabled()) {
+                    genFile.persist(artifact.getData(), artifact.getData().length, true);
+                } else {
+                    try (final OutputStream out = genFile.createTmpOutputStream()) {
+                        out.write(artifact.getData());
+                    }
+                    genFile.persist();
                 }
-                genFile.persist();
             } catch (final IOException ex) {
                 throw new GenerateException("Error writing artifact '" + artifact + "' to '" + artifact.getPathAndName() + "'!", ex);
             }
@@ -0,0 +1,174 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.base;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+import org.fuin.objects4j.common.Contract;
+import org.fuin.srcgen4j.commons.GenerateException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes write tasks on dedicated I/O threads. The number of submitted but not yet finished tasks is limited, so a producer that is
+ * faster than the disk blocks instead of filling up the heap. Errors are collected and reported by {@link #await()}. Instances are thread
+ * safe.
+ */
+public final class AsyncWriteStage {
+
+    /** Default maximum number of pending write tasks. */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncWriteStage.class);
+
+    private final ExecutorService executor;
+
+    private final int capacity;
+
+    private final Semaphore slots;
+
+    private final Queue<Throwable> errors;
+
+    /**
+     * Constructor with all mandatory data.
+     * 
+     * @param name
+     *            Prefix for the thread names - Cannot be NULL.
+     * @param threads
+     *            Number of I/O threads - Must be greater than zero.
+     * @param capacity
+     *            Maximum number of pending write tasks - Must be greater than zero.
+     */
+    public AsyncWriteStage(final String name, final int threads, final int capacity) {
+        super();
+        Contract.requireArgNotNull("name", name);
+        if (threads < 1) {
+            throw new IllegalArgumentException("Argument 'threads' must be greater than zero, but was: " + threads);
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Argument 'capacity' must be greater than zero, but was: " + capacity);
+        }
+        this.executor = ParallelExecution.newExecutor(name, threads);
+        this.capacity = capacity;
+        this.slots = new Semaphore(capacity);
+        this.errors = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Submits a task for execution. Blocks if the maximum number of pending tasks is reached.
+     * 
+     * @param task
+     *            Task to execute - Cannot be NULL.
+     * 
+     * @throws GenerateException
+     *             A previously submitted task failed or the calling thread was interrupted. The task was not submitted in this case.
+     */
+    public final void submit(final WriteTask task) throws GenerateException {
+        Contract.requireArgNotNull("task", task);
+
+        if (!errors.isEmpty()) {
+            // Don't accept any more tasks after the first error
+            await();
+        }
+
+        try {
+            slots.acquire();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new GenerateException("Interrupted while waiting for a free write slot", ex);
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    task.write();
+                } catch (final GenerateException | RuntimeException ex) {
+                    errors.add(ex);
+                } finally {
+                    slots.release();
+                }
+            });
+        } catch (final RuntimeException ex) {
+            slots.release();
+            throw ex;
+        }
+    }
+
+    /**
+     * Waits until all submitted tasks are finished. The stage can be used again afterwards.
+     * 
+     * @throws GenerateException
+     *             At least one task failed since the last call or the calling thread was interrupted.
+     */
+    public final void await() throws GenerateException {
+
+        try {
+            slots.acquire(capacity);
+            slots.release(capacity);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new GenerateException("Interrupted while waiting for pending writes", ex);
+        }
+
+        final List<Throwable> causes = new ArrayList<>();
+        Throwable cause;
+        while ((cause = errors.poll()) != null) {
+            causes.add(cause);
+        }
+        if (!causes.isEmpty()) {
+            for (final Throwable error : causes) {
+                LOG.error("Error writing file", error);
+            }
+            final GenerateException ex = new GenerateException(
+                    "Error writing " + causes.size() + " file(s) - First was: " + causes.get(0).getMessage(), causes.get(0));
+            for (int i = 1; i < causes.size(); i++) {
+                ex.addSuppressed(causes.get(i));
+            }
+            throw ex;
+        }
+
+    }
+
+    /**
+     * Stops the I/O threads. Tasks that are still pending are not executed. Use {@link #await()} before if they should be finished.
+     */
+    public final void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Task that writes something.
+     */
+    @FunctionalInterface
+    public interface WriteTask {
+
+        /**
+         * Executes the write operation.
+         * 
+         * @throws GenerateException
+         *             Error writing.
+         */
+        void write() throws GenerateException;
+
+    }
+
+}
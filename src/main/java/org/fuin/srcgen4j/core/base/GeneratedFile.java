@@ -17,8 +17,16 @@
  */
 package org.fuin.srcgen4j.core.base;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
 
 import org.apache.commons.io.FileUtils;
 import org.fuin.utils4j.Utils4J;
@@ -40,8 +48,14 @@ public final class GeneratedFile {
 
     private final boolean skip;
 
+    private final GeneratedFileManifest manifest;
+
+    private MessageDigest digest;
+
     private boolean persisted = false;
 
+    private boolean changed = false;
+
     /**
      * Constructor with file that will NOT be skipped.
      * 
@@ -65,6 +79,22 @@ public final class GeneratedFile {
      *            If the file should NOT be generated TRUE, else FALSE.
      */
     public GeneratedFile(final File file, final String logInfo, final boolean skip) {
+        this(file, logInfo, skip, null);
+    }
+
+    /**
+     * Constructor with skip information and manifest.
+     * 
+     * @param file
+     *            Target file to generate to - Cannot be NULL.
+     * @param logInfo
+     *            Addition information to log.
+     * @param skip
+     *            If the file should NOT be generated TRUE, else FALSE.
+     * @param manifest
+     *            Manifest of the target directory or NULL if the content should always be compared with the existing file.
+     */
+    public GeneratedFile(final File file, final String logInfo, final boolean skip, final GeneratedFileManifest manifest) {
         super();
         this.file = file;
         this.tmpFile = new File(file + ".tmp");
@@ -74,6 +104,7 @@ public final class GeneratedFile {
             this.logInfo = " [" + logInfo + "]";
         }
         this.skip = skip;
+        this.manifest = manifest;
     }
 
     /**
@@ -86,6 +117,24 @@ public final class GeneratedFile {
         return tmpFile;
     }
 
+    /**
+     * Creates a stream that writes to the temporary file and calculates the content hash on the fly. Using this stream instead of writing
+     * directly to {@link #getTmpFile()} allows {@link #persist()} to detect unchanged files with the manifest without reading the target
+     * file.
+     * 
+     * @return Buffered output stream - Must be closed by the caller before calling {@link #persist()}.
+     * 
+     * @throws IOException
+     *             Error opening the temporary file.
+     */
+    public final OutputStream createTmpOutputStream() throws IOException {
+        if (manifest == null) {
+            return new BufferedOutputStream(new FileOutputStream(tmpFile));
+        }
+        digest = GeneratedFileManifest.createDigest();
+        return new BufferedOutputStream(new DigestOutputStream(new FileOutputStream(tmpFile), digest));
+    }
+
     /**
      * Returns the information if the file should be skipped.
      * 
@@ -98,9 +147,21 @@ public final class GeneratedFile {
     /**
      * Compares the content of the temporary file with the possibly existing target file. If both are equal the temporary file is deleted.
      * Otherwise the old target file is deleted and the new generated file is renamed. This prevents time stamp changes for the target file
-     * if nothing changed since the last generation.
+     * if nothing changed since the last generation. If a manifest is available and the content was written using
+     * {@link #createTmpOutputStream()}, an unchanged file is detected without reading the target file at all.
      */
     public final void persist() {
+        persist(true);
+    }
+
+    /**
+     * Same as {@link #persist()}, but allows to defer logging. This is useful if files are persisted in parallel and the result should be
+     * reported in a deterministic order using {@link #logResult()}.
+     * 
+     * @param log
+     *            TRUE if the result should be logged immediately, FALSE if the caller will call {@link #logResult()} later.
+     */
+    public final void persist(final boolean log) {
 
         if (persisted) {
             // Do nothing if already done
@@ -109,12 +170,21 @@ public final class GeneratedFile {
 
         try {
 
-            // Compare new and old file
-            if (FileUtils.contentEquals(tmpFile, file)) {
-                LOG.debug("Omitted: {} {}", getPath(), logInfo);
+            final String hash;
+            if (manifest == null || digest == null) {
+                hash = null;
+            } else {
+                hash = GeneratedFileManifest.toHex(digest.digest());
+            }
+
+            final long length = tmpFile.length();
+
+            // Compare new and old file (The manifest avoids reading the target file)
+            if ((hash != null && manifest.isUnchanged(file, hash)) || FileUtils.contentEquals(tmpFile, file)) {
                 if (!tmpFile.delete()) {
                     tmpFile.deleteOnExit();
                 }
+                changed = false;
             } else {
                 if (file.exists() && !file.delete()) {
                     throw new IOException("Wasn't able to delete file " + file);
@@ -122,15 +192,125 @@ public final class GeneratedFile {
                 if (!tmpFile.renameTo(file)) {
                     throw new IOException("Wasn't able to rename temporary file " + tmpFile + " to " + file);
                 }
-                LOG.info("Generated: {} {}", getPath(), logInfo);
+                changed = true;
+            }
+            if (hash != null) {
+                manifest.update(file, hash);
             }
 
             persisted = true;
+            reportPersisted(length);
 
         } catch (final IOException ex) {
             throw new RuntimeException("Error comparing content: tmp=" + tmpFile + ", target=" + file + logInfo, ex);
         }
 
+        if (log) {
+            logResult();
+        }
+
+    }
+
+    /**
+     * Writes the given content directly to the target file, but only if it differs from the existing file. No temporary file is used. If
+     * a manifest is available, an unchanged file is detected without reading the target file at all.
+     * 
+     * @param content
+     *            Buffer with the new content - Cannot be NULL.
+     * @param length
+     *            Number of valid bytes in the buffer.
+     * @param log
+     *            TRUE if the result should be logged immediately, FALSE if the caller will call {@link #logResult()} later.
+     */
+    public final void persist(final byte[] content, final int length, final boolean log) {
+
+        if (persisted) {
+            // Do nothing if already done
+            return;
+        }
+
+        try {
+
+            final String hash;
+            if (manifest == null) {
+                hash = null;
+            } else {
+                final MessageDigest md = GeneratedFileManifest.createDigest();
+                md.update(content, 0, length);
+                hash = GeneratedFileManifest.toHex(md.digest());
+            }
+
+            // Compare new and old content (The manifest avoids reading the target file)
+            if ((hash != null && manifest.isUnchanged(file, hash)) || contentEquals(file, content, length)) {
+                changed = false;
+            } else {
+                try (final OutputStream out = new FileOutputStream(file)) {
+                    out.write(content, 0, length);
+                }
+                changed = true;
+            }
+            if (hash != null) {
+                manifest.update(file, hash);
+            }
+
+            persisted = true;
+            reportPersisted(length);
+
+        } catch (final IOException ex) {
+            throw new RuntimeException("Error writing content: target=" + file + logInfo, ex);
+        }
+
+        if (log) {
+            logResult();
+        }
+
+    }
+
+    private void reportPersisted(final long length) {
+        final MetricsListener metrics = Metrics.getListener();
+        if (metrics != null) {
+            metrics.persisted(file, length, changed);
+        }
+    }
+
+    private static boolean contentEquals(final File file, final byte[] content, final int length) throws IOException {
+        if (!file.exists() || file.length() != length) {
+            return false;
+        }
+        final byte[] buf = new byte[Math.min(length, 8192)];
+        try (final InputStream in = Files.newInputStream(file.toPath())) {
+            int pos = 0;
+            int read;
+            while ((read = in.read(buf)) > 0) {
+                if (pos + read > length || !Arrays.equals(buf, 0, read, content, pos, pos + read)) {
+                    return false;
+                }
+                pos += read;
+            }
+            return pos == length;
+        }
+    }
+
+    /**
+     * Logs the result of the last persist operation. Does nothing if the file was not persisted yet.
+     */
+    public final void logResult() {
+        if (persisted) {
+            if (changed) {
+                LOG.info("Generated: {} {}", getPath(), logInfo);
+            } else {
+                LOG.debug("Omitted: {} {}", getPath(), logInfo);
+            }
+        }
+    }
+
+    /**
+     * Returns the information if the target file was written by the last persist operation.
+     * 
+     * @return TRUE if the file was created or changed, FALSE if the content was equal or the file was not persisted yet.
+     */
+    public final boolean isChanged() {
+        return changed;
     }
 
     private String getPath() {
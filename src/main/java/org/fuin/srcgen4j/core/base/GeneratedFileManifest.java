@@ -0,0 +1,248 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.base;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.fuin.objects4j.common.Contract;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent manifest that remembers content hash, size and modification time of all files generated into a directory. If the hash of a
+ * newly generated content matches the manifest entry and the size and modification time of the target file did not change since the last
+ * run, the target file is known to be unchanged without reading it. Instances are thread safe.
+ */
+public final class GeneratedFileManifest {
+
+    /** Name of the manifest file inside the output directory. */
+    public static final String FILENAME = ".srcgen4j-manifest";
+
+    /** Algorithm used for the content hash. */
+    public static final String HASH_ALGORITHM = "SHA-256";
+
+    private static final Logger LOG = LoggerFactory.getLogger(GeneratedFileManifest.class);
+
+    private static final String SEPARATOR = "\t";
+
+    private final File dir;
+
+    private final File manifestFile;
+
+    private final Map<String, Entry> entries;
+
+    private volatile boolean dirty;
+
+    private GeneratedFileManifest(final File dir) {
+        super();
+        this.dir = dir;
+        this.manifestFile = new File(dir, FILENAME);
+        this.entries = new ConcurrentHashMap<>();
+        this.dirty = false;
+    }
+
+    /**
+     * Loads the manifest of a directory. A missing or unreadable manifest results in an empty one.
+     * 
+     * @param dir
+     *            Canonical output directory - Cannot be NULL.
+     * 
+     * @return Manifest - Never NULL.
+     */
+    public static GeneratedFileManifest load(final File dir) {
+        Contract.requireArgNotNull("dir", dir);
+        final GeneratedFileManifest manifest = new GeneratedFileManifest(dir);
+        if (manifest.manifestFile.exists()) {
+            try (final BufferedReader reader = Files.newBufferedReader(manifest.manifestFile.toPath(), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    final String[] parts = line.split(SEPARATOR, 4);
+                    if (parts.length == 4) {
+                        manifest.entries.put(parts[3], new Entry(parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2])));
+                    }
+                }
+                LOG.debug("Loaded manifest with {} entries: {}", manifest.entries.size(), manifest.manifestFile);
+            } catch (final IOException | RuntimeException ex) {
+                LOG.warn("Ignoring unreadable manifest: " + manifest.manifestFile, ex);
+                manifest.entries.clear();
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * Returns the directory the manifest belongs to.
+     * 
+     * @return Canonical output directory.
+     */
+    public final File getDir() {
+        return dir;
+    }
+
+    /**
+     * Determines if a file is known to have the given content. This only checks the file's meta data and never reads the file.
+     * 
+     * @param file
+     *            File inside the manifest's directory - Cannot be NULL.
+     * @param hash
+     *            Content hash of the new content - Cannot be NULL.
+     * 
+     * @return TRUE if the file exists and is known to have exactly the content described by the hash.
+     */
+    public final boolean isUnchanged(final File file, final String hash) {
+        final Entry entry = entries.get(key(file));
+        if (entry == null || !entry.hash.equals(hash)) {
+            return false;
+        }
+        return file.length() == entry.size && file.lastModified() == entry.lastModified;
+    }
+
+    /**
+     * Records the current state of a file after it was written or verified.
+     * 
+     * @param file
+     *            Existing file inside the manifest's directory - Cannot be NULL.
+     * @param hash
+     *            Content hash of the file - Cannot be NULL.
+     */
+    public final void update(final File file, final String hash) {
+        final Entry entry = new Entry(hash, file.length(), file.lastModified());
+        final Entry old = entries.put(key(file), entry);
+        if (!entry.equals(old)) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Writes the manifest to disk if it was changed since it was loaded or saved the last time. Errors are only logged, as a missing
+     * manifest simply means target files will be compared by content.
+     */
+    public final synchronized void save() {
+        if (!dirty) {
+            return;
+        }
+        final File tmpFile = new File(manifestFile + ".tmp");
+        try {
+            try (final BufferedWriter writer = Files.newBufferedWriter(tmpFile.toPath(), StandardCharsets.UTF_8)) {
+                for (final Map.Entry<String, Entry> mapEntry : new TreeMap<>(entries).entrySet()) {
+                    final Entry entry = mapEntry.getValue();
+                    writer.write(entry.hash + SEPARATOR + entry.size + SEPARATOR + entry.lastModified + SEPARATOR + mapEntry.getKey());
+                    writer.newLine();
+                }
+            }
+            Files.move(tmpFile.toPath(), manifestFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            dirty = false;
+            LOG.debug("Saved manifest with {} entries: {}", entries.size(), manifestFile);
+        } catch (final IOException ex) {
+            LOG.warn("Wasn't able to save manifest: " + manifestFile, ex);
+        }
+    }
+
+    private String key(final File file) {
+        return dir.toPath().relativize(file.toPath()).toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Creates a new message digest for calculating the content hash.
+     * 
+     * @return New digest instance.
+     */
+    public static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (final NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Every Java platform is required to support " + HASH_ALGORITHM, ex);
+        }
+    }
+
+    /**
+     * Converts a digest result into a hex string.
+     * 
+     * @param digest
+     *            Digest to convert - Cannot be NULL.
+     * 
+     * @return Lower case hex string.
+     */
+    public static String toHex(final byte[] digest) {
+        final StringBuilder sb = new StringBuilder(digest.length * 2);
+        for (final byte b : digest) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * State of a single file.
+     */
+    private static final class Entry {
+
+        private final String hash;
+
+        private final long size;
+
+        private final long lastModified;
+
+        Entry(final String hash, final long size, final long lastModified) {
+            super();
+            this.hash = hash;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        // CHECKSTYLE:OFF Generated code
+        @Override
+        public final int hashCode() {
+            final int prime = 31;
+            int result = 1;
+            result = (prime * result) + hash.hashCode();
+            result = (prime * result) + Long.hashCode(size);
+            result = (prime * result) + Long.hashCode(lastModified);
+            return result;
+        }
+
+        @Override
+        public final boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null) {
+                return false;
+            }
+            if (getClass() != obj.getClass()) {
+                return false;
+            }
+            final Entry other = (Entry) obj;
+            return hash.equals(other.hash) && size == other.size && lastModified == other.lastModified;
+        }
+        // CHECKSTYLE:ON
+
+    }
+
+}
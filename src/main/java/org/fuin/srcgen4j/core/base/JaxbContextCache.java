@@ -0,0 +1,251 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.base;
+
+import java.io.File;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+import org.fuin.objects4j.common.Contract;
+import org.fuin.utils4j.jaxb.JaxbUtils;
+import org.fuin.utils4j.jaxb.UnmarshallerBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shared JAXB context for a fixed set of classes. Creating a context is expensive, so there is only one instance per set of classes.
+ * Marshallers and unmarshallers are not thread safe and are kept in pools for reuse. Instances of this class are thread safe.
+ */
+public final class JaxbContextCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JaxbContextCache.class);
+
+    private static final Map<String, JaxbContextCache> CACHES = new ConcurrentHashMap<>();
+
+    private final JAXBContext context;
+
+    private final Queue<Unmarshaller> unmarshallers;
+
+    private final Queue<Marshaller> marshallers;
+
+    private JaxbContextCache(final JAXBContext context) {
+        super();
+        this.context = context;
+        this.unmarshallers = new ConcurrentLinkedQueue<>();
+        this.marshallers = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Returns the cache for the given classes and creates it if it does not exist yet.
+     * 
+     * @param classes
+     *            Classes to be recognized by the context - Cannot be NULL. The order of the classes is relevant.
+     * 
+     * @return Cache - Never NULL.
+     * 
+     * @throws JAXBException
+     *             Error creating the context.
+     */
+    public static JaxbContextCache get(final Class<?>... classes) throws JAXBException {
+        Contract.requireArgNotNull("classes", classes);
+        try {
+            return CACHES.computeIfAbsent(key(classes), k -> create(k, classes));
+        } catch (final ContextCreationException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private static JaxbContextCache create(final String key, final Class<?>... classes) {
+        LOG.debug("Create JAXB context: {}", key);
+        try {
+            return new JaxbContextCache(JAXBContext.newInstance(classes));
+        } catch (final JAXBException ex) {
+            throw new ContextCreationException(ex);
+        }
+    }
+
+    private static String key(final Class<?>... classes) {
+        final StringBuilder sb = new StringBuilder();
+        for (final Class<?> clasz : classes) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(clasz.getName());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the shared context.
+     * 
+     * @return Context - Never NULL.
+     */
+    public final JAXBContext getContext() {
+        return context;
+    }
+
+    /**
+     * Unmarshals an object from a file using a pooled unmarshaller.
+     * 
+     * @param file
+     *            File to read - Cannot be NULL.
+     * 
+     * @return Unmarshalled object.
+     * 
+     * @param <T>
+     *            Expected type of the object.
+     */
+    public final <T> T unmarshal(final File file) {
+        Contract.requireArgNotNull("file", file);
+        final Unmarshaller unmarshaller = borrow();
+        try {
+            return JaxbUtils.unmarshal(unmarshaller, file);
+        } finally {
+            unmarshallers.offer(unmarshaller);
+        }
+    }
+
+    /**
+     * Unmarshals an object from a reader using a pooled unmarshaller.
+     * 
+     * @param reader
+     *            Reader to use - Cannot be NULL.
+     * 
+     * @return Unmarshalled object.
+     * 
+     * @param <T>
+     *            Expected type of the object.
+     */
+    public final <T> T unmarshal(final Reader reader) {
+        Contract.requireArgNotNull("reader", reader);
+        final Unmarshaller unmarshaller = borrow();
+        try {
+            return JaxbUtils.unmarshal(unmarshaller, reader);
+        } finally {
+            unmarshallers.offer(unmarshaller);
+        }
+    }
+
+    /**
+     * Marshals an object to a file using a pooled marshaller. The output is formatted.
+     * 
+     * @param obj
+     *            Object to write - Cannot be NULL.
+     * @param file
+     *            File to write to - Cannot be NULL.
+     * 
+     * @throws JAXBException
+     *             Error writing the object.
+     */
+    public final void marshal(final Object obj, final File file) throws JAXBException {
+        Contract.requireArgNotNull("obj", obj);
+        Contract.requireArgNotNull("file", file);
+        final Marshaller marshaller = borrowMarshaller();
+        try {
+            marshaller.marshal(obj, file);
+        } finally {
+            marshallers.offer(marshaller);
+        }
+    }
+
+    /**
+     * Marshals an object to a writer using a pooled marshaller. The output is formatted.
+     * 
+     * @param obj
+     *            Object to write - Cannot be NULL.
+     * @param writer
+     *            Writer to use - Cannot be NULL.
+     * 
+     * @throws JAXBException
+     *             Error writing the object.
+     */
+    public final void marshal(final Object obj, final Writer writer) throws JAXBException {
+        Contract.requireArgNotNull("obj", obj);
+        Contract.requireArgNotNull("writer", writer);
+        final Marshaller marshaller = borrowMarshaller();
+        try {
+            marshaller.marshal(obj, writer);
+        } finally {
+            marshallers.offer(marshaller);
+        }
+    }
+
+    /**
+     * Marshals an object to a string using a pooled marshaller. The output is formatted.
+     * 
+     * @param obj
+     *            Object to write - Cannot be NULL.
+     * 
+     * @return XML.
+     * 
+     * @throws JAXBException
+     *             Error writing the object.
+     */
+    public final String marshal(final Object obj) throws JAXBException {
+        final StringWriter writer = new StringWriter();
+        marshal(obj, writer);
+        return writer.toString();
+    }
+
+    private Marshaller borrowMarshaller() throws JAXBException {
+        final Marshaller marshaller = marshallers.poll();
+        if (marshaller == null) {
+            final Marshaller created = context.createMarshaller();
+            created.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+            return created;
+        }
+        return marshaller;
+    }
+
+    private Unmarshaller borrow() {
+        final Unmarshaller unmarshaller = unmarshallers.poll();
+        if (unmarshaller == null) {
+            return new UnmarshallerBuilder().withContext(context).build();
+        }
+        return unmarshaller;
+    }
+
+    /**
+     * Transports the checked exception out of {@link Map#computeIfAbsent(Object, java.util.function.Function)}.
+     */
+    private static final class ContextCreationException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        ContextCreationException(final JAXBException cause) {
+            super(cause);
+        }
+
+        @Override
+        public final JAXBException getCause() {
+            return (JAXBException) super.getCause();
+        }
+
+    }
+
+}
@@ -0,0 +1,245 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.base;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.fuin.objects4j.common.Contract;
+
+/**
+ * Metrics listener that sums up all measurements and writes them as a JSON report. Entries of every section are sorted by their total time
+ * in descending order, so the most expensive parsers, templates or factories come first. Instances are thread safe.
+ */
+public final class JsonMetricsReport implements MetricsListener {
+
+    private final Map<String, Stats> parsers;
+
+    private final Map<String, Stats> resolvers;
+
+    private final Map<String, Stats> generators;
+
+    private final Map<String, Stats> templates;
+
+    private final Map<String, Stats> factories;
+
+    private final LongAdder changedFiles;
+
+    private final LongAdder unchangedFiles;
+
+    private final LongAdder skippedFiles;
+
+    private final LongAdder bytesGenerated;
+
+    private final LongAdder bytesWritten;
+
+    /**
+     * Default constructor.
+     */
+    public JsonMetricsReport() {
+        super();
+        parsers = new ConcurrentHashMap<>();
+        resolvers = new ConcurrentHashMap<>();
+        generators = new ConcurrentHashMap<>();
+        templates = new ConcurrentHashMap<>();
+        factories = new ConcurrentHashMap<>();
+        changedFiles = new LongAdder();
+        unchangedFiles = new LongAdder();
+        skippedFiles = new LongAdder();
+        bytesGenerated = new LongAdder();
+        bytesWritten = new LongAdder();
+    }
+
+    @Override
+    public final void parsed(final String parser, final long nanos, final int resources) {
+        stats(parsers, parser).add(nanos, resources);
+    }
+
+    @Override
+    public final void resolved(final String parser, final long nanos, final int unresolved) {
+        stats(resolvers, parser).add(nanos, unresolved);
+    }
+
+    @Override
+    public final void generated(final String generator, final long nanos) {
+        stats(generators, generator).add(nanos, 0);
+    }
+
+    @Override
+    public final void rendered(final String template, final long nanos, final long bytes) {
+        stats(templates, template).add(nanos, bytes);
+    }
+
+    @Override
+    public final void persisted(final File file, final long bytes, final boolean changed) {
+        bytesGenerated.add(bytes);
+        if (changed) {
+            changedFiles.increment();
+            bytesWritten.add(bytes);
+        } else {
+            unchangedFiles.increment();
+        }
+    }
+
+    @Override
+    public final void skipped(final File file) {
+        skippedFiles.increment();
+    }
+
+    @Override
+    public final void created(final String factory, final long cpuNanos, final int artifacts) {
+        stats(factories, factory).add(cpuNanos, artifacts);
+    }
+
+    private static Stats stats(final Map<String, Stats> map, final String name) {
+        return map.computeIfAbsent(String.valueOf(name), key -> new Stats());
+    }
+
+    /**
+     * Returns the report as JSON.
+     * 
+     * @return JSON object with all measurements so far.
+     */
+    public final String toJson() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        append(sb, "parsers", parsers, "resources");
+        sb.append(",\n");
+        append(sb, "resolvers", resolvers, "unresolved");
+        sb.append(",\n");
+        append(sb, "generators", generators, null);
+        sb.append(",\n");
+        append(sb, "templates", templates, "bytes");
+        sb.append(",\n");
+        append(sb, "factories", factories, "artifacts");
+        sb.append(",\n");
+        sb.append("  \"files\": {\"changed\": ").append(changedFiles.sum());
+        sb.append(", \"unchanged\": ").append(unchangedFiles.sum());
+        sb.append(", \"skipped\": ").append(skippedFiles.sum());
+        sb.append(", \"bytesGenerated\": ").append(bytesGenerated.sum());
+        sb.append(", \"bytesWritten\": ").append(bytesWritten.sum()).append("}\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Writes the report as JSON to a file.
+     * 
+     * @param file
+     *            File to create or replace - Cannot be NULL.
+     * 
+     * @throws IOException
+     *             Error writing the file.
+     */
+    public final void write(final File file) throws IOException {
+        Contract.requireArgNotNull("file", file);
+        try (final Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(toJson());
+        }
+    }
+
+    private static void append(final StringBuilder sb, final String section, final Map<String, Stats> map, final String amountName) {
+        // Copy first, so the values don't change while sorting
+        final List<Map.Entry<String, Stats>> entries = new ArrayList<>();
+        for (final Map.Entry<String, Stats> entry : map.entrySet()) {
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue().copy()));
+        }
+        entries.sort((a, b) -> Long.compare(b.getValue().totalNanos, a.getValue().totalNanos));
+        sb.append("  \"").append(section).append("\": {");
+        for (int i = 0; i < entries.size(); i++) {
+            final Map.Entry<String, Stats> entry = entries.get(i);
+            final Stats stats = entry.getValue();
+            if (i > 0) {
+                sb.append(",");
+            }
+            sb.append("\n    \"").append(escape(entry.getKey())).append("\": {");
+            sb.append("\"count\": ").append(stats.count);
+            sb.append(", \"totalMillis\": ").append(millis(stats.totalNanos));
+            sb.append(", \"maxMillis\": ").append(millis(stats.maxNanos));
+            if (amountName != null) {
+                sb.append(", \"").append(amountName).append("\": ").append(stats.amount);
+            }
+            sb.append("}");
+        }
+        if (!entries.isEmpty()) {
+            sb.append("\n  ");
+        }
+        sb.append("}");
+    }
+
+    private static String millis(final long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1000000.0);
+    }
+
+    private static String escape(final String str) {
+        final StringBuilder sb = new StringBuilder(str.length());
+        for (int i = 0; i < str.length(); i++) {
+            final char ch = str.charAt(i);
+            if (ch == '"' || ch == '\\') {
+                sb.append('\\').append(ch);
+            } else if (ch < ' ') {
+                sb.append(String.format(Locale.ROOT, "\\u%04x", (int) ch));
+            } else {
+                sb.append(ch);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Sums up the measurements of a single parser, template, factory or generator.
+     */
+    private static final class Stats {
+
+        private long count;
+
+        private long totalNanos;
+
+        private long maxNanos;
+
+        private long amount;
+
+        synchronized void add(final long nanos, final long value) {
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            amount += value;
+        }
+
+        synchronized Stats copy() {
+            final Stats copy = new Stats();
+            copy.count = count;
+            copy.totalNanos = totalNanos;
+            copy.maxNanos = maxNanos;
+            copy.amount = amount;
+            return copy;
+        }
+
+    }
+
+}
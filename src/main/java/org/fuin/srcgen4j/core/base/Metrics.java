@@ -0,0 +1,67 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.base;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Holds the globally registered {@link MetricsListener}. Without a registered listener, parsers and generators don't measure anything.
+ */
+public final class Metrics {
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private static volatile MetricsListener listener;
+
+    private Metrics() {
+        // Never used
+    }
+
+    /**
+     * Returns the registered listener.
+     * 
+     * @return Listener or NULL if metrics are disabled.
+     */
+    public static MetricsListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Registers a listener. Only one listener can be registered at a time.
+     * 
+     * @param listener
+     *            Listener to register or NULL to disable metrics.
+     */
+    public static void setListener(final MetricsListener listener) {
+        Metrics.listener = listener;
+    }
+
+    /**
+     * Returns the CPU time of the current thread. Falls back to the wall clock time if the JVM does not support measuring CPU time.
+     * 
+     * @return Time in nanoseconds - Only useful for calculating differences.
+     */
+    public static long currentThreadCpuTime() {
+        if (THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported()) {
+            return THREAD_MX_BEAN.getCurrentThreadCpuTime();
+        }
+        return System.nanoTime();
+    }
+
+}
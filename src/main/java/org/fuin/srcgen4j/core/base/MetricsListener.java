@@ -0,0 +1,121 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.base;
+
+import java.io.File;
+
+/**
+ * Receives measurements from parsers and generators. Implementations must be thread safe, as parsers and generators may report from
+ * multiple threads at the same time. All methods do nothing by default. Use {@link Metrics#setListener(MetricsListener)} to register an
+ * instance.
+ */
+public interface MetricsListener {
+
+    /**
+     * A parser finished loading the model.
+     * 
+     * @param parser
+     *            Name of the parser.
+     * @param nanos
+     *            Elapsed time in nanoseconds.
+     * @param resources
+     *            Number of loaded resources or files.
+     */
+    public default void parsed(final String parser, final long nanos, final int resources) {
+        // Does nothing by default
+    }
+
+    /**
+     * A parser finished resolving references.
+     * 
+     * @param parser
+     *            Name of the parser.
+     * @param nanos
+     *            Elapsed time in nanoseconds.
+     * @param unresolved
+     *            Number of references that could not be resolved.
+     */
+    public default void resolved(final String parser, final long nanos, final int unresolved) {
+        // Does nothing by default
+    }
+
+    /**
+     * A generator finished a generation run.
+     * 
+     * @param generator
+     *            Name of the generator.
+     * @param nanos
+     *            Elapsed time in nanoseconds.
+     */
+    public default void generated(final String generator, final long nanos) {
+        // Does nothing by default
+    }
+
+    /**
+     * A template was rendered.
+     * 
+     * @param template
+     *            Name of the template.
+     * @param nanos
+     *            Elapsed time in nanoseconds.
+     * @param bytes
+     *            Size of the rendered content.
+     */
+    public default void rendered(final String template, final long nanos, final long bytes) {
+        // Does nothing by default
+    }
+
+    /**
+     * A generated file was compared with the existing one and written if it changed.
+     * 
+     * @param file
+     *            Target file.
+     * @param bytes
+     *            Size of the generated content.
+     * @param changed
+     *            TRUE if the file was written, FALSE if the content was unchanged.
+     */
+    public default void persisted(final File file, final long bytes, final boolean changed) {
+        // Does nothing by default
+    }
+
+    /**
+     * A file was not generated because overriding it is not allowed.
+     * 
+     * @param file
+     *            Target file.
+     */
+    public default void skipped(final File file) {
+        // Does nothing by default
+    }
+
+    /**
+     * An artifact factory created artifacts.
+     * 
+     * @param factory
+     *            Name of the factory.
+     * @param cpuNanos
+     *            CPU time of the calling thread in nanoseconds.
+     * @param artifacts
+     *            Number of created artifacts.
+     */
+    public default void created(final String factory, final long cpuNanos, final int artifacts) {
+        // Does nothing by default
+    }
+
+}
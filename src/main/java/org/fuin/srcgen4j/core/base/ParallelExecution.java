@@ -0,0 +1,386 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.base;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.fuin.objects4j.common.Contract;
+
+/**
+ * Utility methods for running independent tasks on a worker pool. Results and errors are always reported in the order the tasks were
+ * submitted, regardless of the order they finished.
+ */
+public final class ParallelExecution {
+
+    private ParallelExecution() {
+        // Never used
+    }
+
+    /**
+     * Returns the number of worker threads to use for a configured value.
+     * 
+     * @param threads
+     *            Configured number of threads - NULL means sequential (1) and a value less than 1 means one thread per available processor.
+     * 
+     * @return Number of threads - Always greater than zero.
+     */
+    public static int effectiveThreads(final Integer threads) {
+        if (threads == null) {
+            return 1;
+        }
+        if (threads < 1) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        return threads;
+    }
+
+    /**
+     * Creates a fixed size worker pool that uses daemon threads with a readable name.
+     * 
+     * @param name
+     *            Prefix for the thread names - Cannot be NULL.
+     * @param threads
+     *            Number of threads - Must be greater than zero.
+     * 
+     * @return New executor - Must be shut down by the caller.
+     */
+    public static ExecutorService newExecutor(final String name, final int threads) {
+        Contract.requireArgNotNull("name", name);
+        final AtomicInteger count = new AtomicInteger();
+        final ThreadFactory factory = runnable -> {
+            final Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(threads, factory);
+    }
+
+    /**
+     * Shuts an executor down and waits until the running tasks finished. Other than {@link ExecutorService#shutdownNow()} the tasks are
+     * not interrupted, so a task that writes a file is never stopped halfway. The tasks are only interrupted if the calling thread is
+     * interrupted while waiting.
+     * 
+     * @param executor
+     *            Executor to shut down - Cannot be NULL.
+     */
+    public static void shutdown(final ExecutorService executor) {
+        Contract.requireArgNotNull("executor", executor);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (final InterruptedException ex) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Executes all tasks and waits for them to finish.
+     * 
+     * @param executor
+     *            Executor to use - Cannot be NULL.
+     * @param tasks
+     *            Tasks to execute - Cannot be NULL.
+     * @param failFast
+     *            TRUE cancels all remaining tasks as soon as the first task failed, FALSE executes all tasks and collects all errors. Tasks
+     *            that already run are not interrupted - Use {@link #shutdown(ExecutorService)} to wait for them.
+     * 
+     * @return Outcome of the execution.
+     * 
+     * @param <R>
+     *            Type of the task result.
+     */
+    public static <R> Outcome<R> invokeAll(final ExecutorService executor, final List<? extends Callable<R>> tasks, final boolean failFast) {
+        Contract.requireArgNotNull("executor", executor);
+        Contract.requireArgNotNull("tasks", tasks);
+
+        final CompletionService<R> completionService = new ExecutorCompletionService<>(executor);
+        final List<Future<R>> futures = new ArrayList<>(tasks.size());
+        for (final Callable<R> task : tasks) {
+            futures.add(completionService.submit(task));
+        }
+
+        // Wait for completion in the order the tasks finish to detect errors early
+        boolean cancelled = false;
+        for (int i = 0; i < futures.size() && !cancelled; i++) {
+            try {
+                completionService.take().get();
+            } catch (final ExecutionException ex) {
+                if (failFast) {
+                    cancelled = cancel(futures);
+                }
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                cancelled = cancel(futures);
+            }
+        }
+
+        // Collect results and errors in submission order
+        final List<R> results = new ArrayList<>(futures.size());
+        final List<TaskError> errors = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            final Future<R> future = futures.get(i);
+            if (future.isCancelled()) {
+                results.add(null);
+            } else {
+                try {
+                    results.add(future.get());
+                } catch (final ExecutionException ex) {
+                    results.add(null);
+                    errors.add(new TaskError(i, tasks.get(i), ex.getCause()));
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    results.add(null);
+                    errors.add(new TaskError(i, tasks.get(i), ex));
+                }
+            }
+        }
+        return new Outcome<>(futures.size(), results, errors, cancelled);
+    }
+
+    /**
+     * Executes tasks that are lazily taken from an iterator. Only a bounded number of tasks is submitted at a time, so neither the tasks
+     * nor their results have to be held in memory all at once. The iterator is only used by the calling thread and the results are passed
+     * to the consumer in the order the tasks were taken from the iterator.
+     * 
+     * @param executor
+     *            Executor to use - Cannot be NULL.
+     * @param tasks
+     *            Tasks to execute - Cannot be NULL.
+     * @param window
+     *            Maximum number of tasks submitted but not yet consumed - Must be greater than zero.
+     * @param failFast
+     *            TRUE stops taking new tasks and cancels all submitted tasks as soon as the first task failed, FALSE executes all tasks and
+     *            collects all errors. Tasks that already run are not interrupted - Use {@link #shutdown(ExecutorService)} to wait for them.
+     * @param consumer
+     *            Receives the result of every successful task in the calling thread - Cannot be NULL.
+     * 
+     * @return Outcome of the execution - The result list is always empty.
+     * 
+     * @param <R>
+     *            Type of the task result.
+     */
+    public static <R> Outcome<R> invokeAll(final ExecutorService executor, final Iterator<? extends Callable<R>> tasks, final int window,
+            final boolean failFast, final Consumer<? super R> consumer) {
+        Contract.requireArgNotNull("executor", executor);
+        Contract.requireArgNotNull("tasks", tasks);
+        Contract.requireArgNotNull("consumer", consumer);
+        if (window < 1) {
+            throw new IllegalArgumentException("Argument 'window' must be greater than zero, but was: " + window);
+        }
+
+        final Deque<Submitted<R>> pending = new ArrayDeque<>(window);
+        final List<TaskError> errors = new ArrayList<>();
+        int count = 0;
+        boolean cancelled = false;
+        while (!cancelled) {
+            while (pending.size() < window && tasks.hasNext()) {
+                final Callable<R> task = tasks.next();
+                pending.add(new Submitted<>(count++, task, executor.submit(task)));
+            }
+            final Submitted<R> head = pending.poll();
+            if (head == null) {
+                break;
+            }
+            try {
+                consumer.accept(head.future.get());
+            } catch (final ExecutionException ex) {
+                errors.add(new TaskError(head.index, head.task, ex.getCause()));
+                if (failFast) {
+                    cancelled = cancelSubmitted(pending);
+                }
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                head.future.cancel(false);
+                cancelled = cancelSubmitted(pending);
+            }
+        }
+        return new Outcome<>(count, Collections.<R> emptyList(), errors, cancelled);
+    }
+
+    private static <R> boolean cancelSubmitted(final Deque<Submitted<R>> pending) {
+        // Interrupting a running task could leave a half-written file behind
+        for (final Submitted<R> submitted : pending) {
+            submitted.future.cancel(false);
+        }
+        pending.clear();
+        return true;
+    }
+
+    private static boolean cancel(final List<? extends Future<?>> futures) {
+        for (final Future<?> future : futures) {
+            future.cancel(false);
+        }
+        return true;
+    }
+
+    /**
+     * Result of executing multiple tasks.
+     * 
+     * @param <R>
+     *            Type of the task result.
+     */
+    public static final class Outcome<R> {
+
+        private final int count;
+
+        private final List<R> results;
+
+        private final List<TaskError> errors;
+
+        private final boolean cancelled;
+
+        private Outcome(final int count, final List<R> results, final List<TaskError> errors, final boolean cancelled) {
+            super();
+            this.count = count;
+            this.results = Collections.unmodifiableList(results);
+            this.errors = Collections.unmodifiableList(errors);
+            this.cancelled = cancelled;
+        }
+
+        /**
+         * Returns the number of submitted tasks.
+         * 
+         * @return Number of tasks including failed and cancelled ones.
+         */
+        public final int getCount() {
+            return count;
+        }
+
+        /**
+         * Returns the results in the order the tasks were submitted.
+         * 
+         * @return Results - Entries of failed or cancelled tasks are NULL.
+         */
+        public final List<R> getResults() {
+            return results;
+        }
+
+        /**
+         * Returns the errors in the order the tasks were submitted.
+         * 
+         * @return Errors - Never NULL, but may be empty.
+         */
+        public final List<TaskError> getErrors() {
+            return errors;
+        }
+
+        /**
+         * Returns the information if remaining tasks were cancelled because of an error or an interrupt.
+         * 
+         * @return TRUE if not all tasks were executed.
+         */
+        public final boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Returns the information if all tasks finished successfully.
+         * 
+         * @return TRUE if there were no errors.
+         */
+        public final boolean isSuccess() {
+            return errors.isEmpty() && !cancelled;
+        }
+
+    }
+
+    /**
+     * Error of a single task.
+     */
+    public static final class TaskError {
+
+        private final int index;
+
+        private final Callable<?> task;
+
+        private final Throwable cause;
+
+        private TaskError(final int index, final Callable<?> task, final Throwable cause) {
+            super();
+            this.index = index;
+            this.task = task;
+            this.cause = cause;
+        }
+
+        /**
+         * Returns the position of the failed task in the submitted list.
+         * 
+         * @return Zero based index.
+         */
+        public final int getIndex() {
+            return index;
+        }
+
+        /**
+         * Returns the failed task.
+         * 
+         * @return Task that threw the error.
+         */
+        public final Callable<?> getTask() {
+            return task;
+        }
+
+        /**
+         * Returns the error thrown by the task.
+         * 
+         * @return Cause.
+         */
+        public final Throwable getCause() {
+            return cause;
+        }
+
+    }
+
+    /**
+     * Task that was submitted to the executor but its result was not consumed yet.
+     */
+    private static final class Submitted<R> {
+
+        private final int index;
+
+        private final Callable<R> task;
+
+        private final Future<R> future;
+
+        Submitted(final int index, final Callable<R> task, final Future<R> future) {
+            super();
+            this.index = index;
+            this.task = task;
+            this.future = future;
+        }
+
+    }
+
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.base;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Byte array output stream that is intended to be reused for rendering many files. The internal buffer is exposed to avoid copying it.
+ * Instances are NOT thread safe.
+ */
+public final class RenderBuffer extends ByteArrayOutputStream {
+
+    /** Buffers that grew larger than this are not kept for reuse. */
+    private static final int MAX_RETAINED_SIZE = 4 * 1024 * 1024;
+
+    private static final int INITIAL_SIZE = 8 * 1024;
+
+    private static final ThreadLocal<RenderBuffer> BUFFERS = ThreadLocal.withInitial(RenderBuffer::new);
+
+    /**
+     * Default constructor.
+     */
+    public RenderBuffer() {
+        super(INITIAL_SIZE);
+    }
+
+    /**
+     * Returns the internal buffer. Only the first {@link #size()} bytes are valid.
+     * 
+     * @return Internal buffer - Never a copy.
+     */
+    public final byte[] getBuffer() {
+        return buf;
+    }
+
+    /**
+     * Returns an empty buffer that is reused by the current thread.
+     * 
+     * @return Empty buffer.
+     */
+    public static RenderBuffer get() {
+        RenderBuffer buffer = BUFFERS.get();
+        if (buffer.buf.length > MAX_RETAINED_SIZE) {
+            buffer = new RenderBuffer();
+            BUFFERS.set(buffer);
+        } else {
+            buffer.reset();
+        }
+        return buffer;
+    }
+
+}
@@ -17,17 +17,23 @@
  */
 package org.fuin.srcgen4j.core.emf;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import javax.validation.constraints.NotNull;
 
 import org.eclipse.emf.common.notify.Notifier;
 import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.fuin.srcgen4j.commons.ArtifactFactory;
 import org.fuin.srcgen4j.commons.GenerateException;
+import org.fuin.srcgen4j.commons.GeneratedArtifact;
 import org.fuin.srcgen4j.commons.Generator;
 import org.fuin.srcgen4j.core.base.AbstractGenerator;
+import org.fuin.srcgen4j.core.base.Metrics;
+import org.fuin.srcgen4j.core.base.MetricsListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,40 +57,94 @@ public abstract class AbstractEMFGenerator<CONFIG> extends AbstractGenerator<Res
     @Override
     protected final void generate(final boolean incremental) throws GenerateException {
 
-        final Map<String, Object> context = new HashMap<>();
-
-        for (int i = 0; i < 2; i++) {
-
-            final boolean preparationRun = (i == 0);
-
-            beforeGenerate(context, incremental, preparationRun);
-
-            int total = 0;
-            int wants = 0;
-            final Iterator<Notifier> it = getModel().getAllContents();
-            while (it.hasNext()) {
-                final Notifier notifier = it.next();
-                total++;
-                if (wants(notifier)) {
-                    wants++;
-                    generate(context, notifier, incremental, preparationRun);
-                }
+        final Map<String, Object> context = createContext();
+
+        // Preparation run walks the model and remembers the wanted notifiers. Only the notifiers are stored and not the factories that
+        // handle them, as this class doesn't know about factories. Sub classes are expected to make the second lookup in the real run
+        // cheap (EMFGenerator caches the factories per notifier class).
+        beforeGenerate(context, incremental, true);
+        final List<Notifier> wanted = new ArrayList<>();
+        int total = 0;
+        final Iterator<Notifier> it = getModel().getAllContents();
+        while (it.hasNext()) {
+            final Notifier notifier = it.next();
+            total++;
+            if (wants(notifier)) {
+                wanted.add(notifier);
+                generate(context, notifier, incremental, true);
+            }
+        }
+        logCounts(total, wanted.size(), incremental);
+        afterGenerate(context, incremental, true);
+
+        // Real run only replays the wanted notifiers
+        try {
+            beforeGenerate(context, incremental, false);
+            for (final Notifier notifier : wanted) {
+                generate(context, notifier, incremental, false);
             }
+            logCounts(total, wanted.size(), incremental);
+            afterGenerate(context, incremental, false);
+        } finally {
+            cleanup(context, incremental);
+        }
 
-            if (total == 0) {
-                LOG.error("EMF model contains no content (incremental={})", incremental);
+    }
+
+    private static void logCounts(final int total, final int wants, final boolean incremental) {
+        if (total == 0) {
+            LOG.error("EMF model contains no content (incremental={})", incremental);
+        } else {
+            if (wants == 0) {
+                LOG.warn("EMF model contains {} elements, but the generator wanted none (incremental={})", total, incremental);
             } else {
-                if (wants == 0) {
-                    LOG.warn("EMF model contains {} elements, but the generator wanted none (incremental={})", total, incremental);
-                } else {
-                    LOG.info("EMF model contains {} elements and generator wanted {} of them (incremental={})", total, wants, incremental);
-                }
+                LOG.info("EMF model contains {} elements and generator wanted {} of them (incremental={})", total, wants, incremental);
             }
+        }
+    }
 
-            afterGenerate(context, incremental, preparationRun);
+    /**
+     * Creates the map used to store information during the generation process. Extension point for sub classes that access the context
+     * concurrently. Default is a simple hash map.
+     * 
+     * @return New empty context.
+     */
+    // CHECKSTYLE:OFF Hook method
+    protected Map<String, Object> createContext() {
+        return new HashMap<>();
+    }
+    // CHECKSTYLE:ON
 
+    /**
+     * Creates artifacts with a factory. The CPU time used by the factory is reported to the registered {@link MetricsListener}.
+     * 
+     * @param factory
+     *            Factory to use.
+     * @param model
+     *            Model to create artifacts for.
+     * @param context
+     *            Map used to store information during the generation process.
+     * @param preparationRun
+     *            TRUE if this is the preparation (dry) run, else FALSE (real generation).
+     * 
+     * @return Created artifacts.
+     * 
+     * @throws GenerateException
+     *             Error when generating.
+     * 
+     * @param <MODEL>
+     *            Type of the model.
+     */
+    protected static <MODEL> List<GeneratedArtifact> create(@NotNull final ArtifactFactory<MODEL> factory, @NotNull final MODEL model,
+            @NotNull final Map<String, Object> context, final boolean preparationRun) throws GenerateException {
+        final MetricsListener metrics = Metrics.getListener();
+        if (metrics == null) {
+            return factory.create(model, context, preparationRun);
         }
-
+        final long start = Metrics.currentThreadCpuTime();
+        final List<GeneratedArtifact> artifacts = factory.create(model, context, preparationRun);
+        metrics.created(factory.getClass().getName(), Metrics.currentThreadCpuTime() - start, artifacts.size());
+        return artifacts;
     }
 
     /**
@@ -124,6 +184,19 @@ public abstract class AbstractEMFGenerator<CONFIG> extends AbstractGenerator<Res
         // May be overwritten by sub classes
     }
 
+    /**
+     * Called after the real generation run, even if it failed. Extension point for sub classes that have to release resources acquired in
+     * {@link #beforeGenerate(Map, boolean, boolean)}. Default is to do nothing.
+     * 
+     * @param context
+     *            Map used to store information during the generation process.
+     * @param incremental
+     *            If this is an incremental build TRUE, else FALSE (full build).
+     */
+    protected void cleanup(@NotNull final Map<String, Object> context, final boolean incremental) {
+        // May be overwritten by sub classes
+    }
+
     /**
      * Determines if the concrete generator is interested in a given notifier type.
      * 
@@ -22,8 +22,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.commons.io.FilenameUtils;
 import org.eclipse.emf.common.notify.Notifier;
@@ -36,7 +39,13 @@ import org.eclipse.emf.ecore.resource.Resource.Diagnostic;
 import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
 import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.util.InternalEList;
 import org.fuin.srcgen4j.core.base.AbstractParser;
+import org.fuin.srcgen4j.core.base.Metrics;
+import org.fuin.srcgen4j.core.base.MetricsListener;
+import org.fuin.srcgen4j.core.base.ParallelExecution;
+import org.fuin.srcgen4j.core.base.ParallelExecution.Outcome;
+import org.fuin.srcgen4j.core.base.ParallelExecution.TaskError;
 import org.fuin.utils4j.Utils4J;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -61,6 +70,17 @@ public abstract class AbstractEMFParser<CONFIG_TYPE> extends AbstractParser<CONF
 
     private List<URI> modelResources;
 
+    private int threads = 1;
+
+    private boolean parsed = false;
+
+    private BinaryResourceCache resourceCache;
+
+    private final ResourceDependencies dependencies = new ResourceDependencies();
+
+    /** Result of resolving the resources touched by the last incremental parse or NULL if unknown. */
+    private Boolean reloadResolved;
+
     /**
      * Basic constructor.
      * 
@@ -113,10 +133,320 @@ public abstract class AbstractEMFParser<CONFIG_TYPE> extends AbstractParser<CONF
         // Drop previous resource set
         resourceSet = new ResourceSetImpl();
         error = false;
+        parsed = true;
+        dependencies.clear();
+        reloadResolved = null;
+
+        final MetricsListener metrics = Metrics.getListener();
+        final long start = System.nanoTime();
+        if (threads > 1) {
+            parseParallel();
+        } else {
+            parseDirs();
+            parseResources();
+        }
+        if (metrics != null) {
+            metrics.parsed(getClass().getSimpleName(), System.nanoTime() - start, resourceSet.getResources().size());
+        }
+
+    }
+
+    /**
+     * Reloads only the given files in the existing resource set. Changed files are unloaded and loaded again, deleted files are removed and
+     * new files are added. Proxies in other resources that point to one of the reloaded resources are resolved again. If there was no full
+     * parse before, a full parse is executed. If the references between the resources are known from a previous complete check (See
+     * {@link #isModelFullyResolved(int)}), only the reloaded resources and the resources that reference them or contain unresolved
+     * references are visited. Otherwise all other resources are searched for proxies to the reloaded resources.
+     * 
+     * @param files
+     *            Changed, added or deleted files - Files that are not model files inside one of the model directories are ignored.
+     */
+    protected final void parseModel(final Set<File> files) {
+
+        if (!parsed) {
+            parseModel();
+            return;
+        }
+
+        final boolean indexed = dependencies.isComplete();
+        final Set<URI> changed = new HashSet<>();
+        for (final File file : files) {
+            if (isModelFile(file)) {
+                final URI uri = URI.createFileURI(Utils4J.getCanonicalPath(file));
+                final Resource existing = resourceSet.getResource(uri, false);
+                if (existing != null) {
+                    LOG.debug("Unload {}", file);
+                    existing.unload();
+                    resourceSet.getResources().remove(existing);
+                }
+                if (resourceCache != null) {
+                    resourceCache.forget(uri);
+                }
+                dependencies.remove(uri);
+                if (file.exists()) {
+                    loadResource(resourceSet, uri);
+                }
+                changed.add(uri);
+            }
+        }
+        LOG.info("Reloaded {} resources", changed.size());
+
+        if (indexed) {
+            reloadResolved = resolveReloaded(changed);
+        } else {
+            resolveDependents(changed);
+            reloadResolved = null;
+        }
+
+        // Errors of unchanged resources are still relevant
+        error = false;
+        for (final Resource resource : resourceSet.getResources()) {
+            final EList<Diagnostic> diagnostics = resource.getErrors();
+            if (!diagnostics.isEmpty()) {
+                error = true;
+                if (changed.contains(resource.getURI())) {
+                    LOG.error("Parsed {} with errors: {}", resource.getURI(), diagnostics);
+                }
+            }
+        }
+
+    }
 
-        parseDirs();
-        parseResources();
+    /**
+     * Resolves all references of the reloaded resources and of the resources that depend on them according to the index. The index entries
+     * of all visited resources are recorded again.
+     * 
+     * @param uris
+     *            URIs of the reloaded resources.
+     * 
+     * @return {@code true} if all references of the visited resources could be resolved.
+     */
+    private boolean resolveReloaded(final Set<URI> uris) {
+        final Set<URI> dependentUris = dependencies.dependentsOf(uris);
+        final List<Resource> resources = new ArrayList<>();
+        for (final URI uri : uris) {
+            addIfLoaded(resources, uri);
+        }
+        final int reloaded = resources.size();
+        for (final URI uri : dependentUris) {
+            addIfLoaded(resources, uri);
+        }
+        final List<Resource> all = resourceSet.getResources();
+        int known = all.size();
+        int errors = 0;
+        for (int i = 0; i < resources.size(); i++) {
+            final Resource resource = resources.get(i);
+            dependencies.remove(resource.getURI());
+            final Iterator<EObject> it = resource.getAllContents();
+            while (it.hasNext()) {
+                // Accessing the resolving list replaces the proxies
+                for (final EObject crossRef : it.next().eCrossReferences()) {
+                    dependencies.record(resource, crossRef);
+                    if (crossRef.eIsProxy()) {
+                        LOG.error("Unresolved: {}", crossRef);
+                        errors++;
+                    }
+                }
+            }
+            // Resources loaded on demand while resolving are not in the index yet
+            while (known < all.size()) {
+                resources.add(all.get(known++));
+            }
+        }
+        LOG.debug("Resolved references of {} reloaded and {} other resources", reloaded, resources.size() - reloaded);
+        return errors == 0;
+    }
 
+    private void addIfLoaded(final List<Resource> resources, final URI uri) {
+        final Resource resource = resourceSet.getResource(uri, false);
+        if (resource != null) {
+            resources.add(resource);
+        }
+    }
+
+    /**
+     * Resolves all proxies that point to one of the given resources. Only objects that contain such a proxy are touched. Used if the
+     * references between the resources are unknown, so all other resources have to be searched.
+     * 
+     * @param uris
+     *            URIs of the reloaded resources.
+     */
+    private void resolveDependents(final Set<URI> uris) {
+        int dependents = 0;
+        for (final Resource resource : new ArrayList<>(resourceSet.getResources())) {
+            if (!uris.contains(resource.getURI())) {
+                final Iterator<EObject> it = resource.getAllContents();
+                while (it.hasNext()) {
+                    final EObject eObj = it.next();
+                    if (hasProxyTo(eObj, uris)) {
+                        // Accessing the resolving list replaces the proxies
+                        for (final EObject crossRef : eObj.eCrossReferences()) {
+                            if (crossRef.eIsProxy()) {
+                                LOG.debug("Unresolved after reload: {}", crossRef);
+                            }
+                        }
+                        dependents++;
+                    }
+                }
+            }
+        }
+        LOG.debug("Resolved references of {} dependent objects", dependents);
+    }
+
+    private static boolean hasProxyTo(final EObject eObj, final Set<URI> uris) {
+        final Iterator<EObject> refIt = basicIterator(eObj.eCrossReferences());
+        while (refIt.hasNext()) {
+            final EObject crossRef = refIt.next();
+            if (crossRef.eIsProxy() && (crossRef instanceof InternalEObject)) {
+                final URI proxyUri = ((InternalEObject) crossRef).eProxyURI();
+                if (proxyUri != null && uris.contains(proxyUri.trimFragment())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Loads a model file from the binary cache if possible, else from the file itself.
+     * 
+     * @param rs
+     *            Resource set to add the resource to.
+     * @param uri
+     *            File URI.
+     * 
+     * @return Loaded resource.
+     */
+    private Resource loadResource(final ResourceSet rs, final URI uri) {
+        if (resourceCache != null) {
+            final Resource cached = resourceCache.load(uri);
+            if (cached != null) {
+                rs.getResources().add(cached);
+                return cached;
+            }
+        }
+        return rs.getResource(uri, true);
+    }
+
+    /**
+     * Writes all resources that were parsed from a file into the binary cache, if a cache is configured. Should only be called after the
+     * model was successfully parsed and all references were resolved.
+     */
+    protected final void storeInCache() {
+        if (resourceCache != null) {
+            for (final Resource resource : new ArrayList<>(resourceSet.getResources())) {
+                resourceCache.store(resource);
+            }
+            resourceCache.evict();
+        }
+    }
+
+    /**
+     * Determines if a file is a model file that belongs to one of the model directories.
+     * 
+     * @param file
+     *            File to test.
+     * 
+     * @return {@code true} if the file has one of the model file extensions and is located inside a model directory.
+     */
+    protected final boolean isModelFile(final File file) {
+        if (file.getName().startsWith(".") || (fileExtensions == null)
+                || !fileExtensions.contains(FilenameUtils.getExtension(file.getName()))) {
+            return false;
+        }
+        if (modelDirs != null) {
+            final File canonicalFile = Utils4J.getCanonicalFile(file);
+            for (final File modelDir : modelDirs) {
+                if (Utils4J.fileInsideDirectory(Utils4J.getCanonicalFile(modelDir), canonicalFile)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Loads all resources on a worker pool. Every resource is loaded into it's own resource set, as resource sets are not thread safe.
+     * The loaded resources are then moved into the final resource set in the same order as a sequential parse would add them.
+     */
+    private void parseParallel() {
+
+        final List<URI> uris = new ArrayList<>();
+        if (modelDirs != null) {
+            for (final File modelDir : modelDirs) {
+                collectFiles(modelDir, uris);
+            }
+        }
+        if (modelResources != null) {
+            uris.addAll(modelResources);
+        }
+
+        final List<Callable<Resource>> tasks = new ArrayList<>(uris.size());
+        for (final URI uri : uris) {
+            tasks.add(() -> loadResource(new ResourceSetImpl(), uri));
+        }
+        LOG.info("Loading {} resources with {} threads", uris.size(), threads);
+
+        final Outcome<Resource> outcome;
+        final ExecutorService executor = ParallelExecution.newExecutor("emf-parser", threads);
+        try {
+            outcome = ParallelExecution.invokeAll(executor, tasks, false);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (!outcome.getErrors().isEmpty()) {
+            for (final TaskError error : outcome.getErrors()) {
+                LOG.error("Error loading: " + uris.get(error.getIndex()), error.getCause());
+            }
+            final Throwable first = outcome.getErrors().get(0).getCause();
+            final RuntimeException ex;
+            if (first instanceof RuntimeException) {
+                ex = (RuntimeException) first;
+            } else {
+                ex = new RuntimeException("Error loading: " + uris.get(outcome.getErrors().get(0).getIndex()), first);
+            }
+            for (int i = 1; i < outcome.getErrors().size(); i++) {
+                ex.addSuppressed(outcome.getErrors().get(i).getCause());
+            }
+            throw ex;
+        }
+        if (outcome.isCancelled()) {
+            throw new IllegalStateException("Loading resources was interrupted");
+        }
+
+        // Merge in a deterministic order
+        final Set<URI> merged = new HashSet<>();
+        for (int i = 0; i < uris.size(); i++) {
+            final URI uri = uris.get(i);
+            if (merged.add(uri)) {
+                final Resource resource = outcome.getResults().get(i);
+                resourceSet.getResources().add(resource);
+                final EList<Diagnostic> diagnostics = resource.getErrors();
+                if (diagnostics.isEmpty()) {
+                    LOG.debug("Parsed {}", uri);
+                } else {
+                    error = true;
+                    LOG.error("Parsed {} with errors: {}", uri, diagnostics);
+                }
+            }
+        }
+
+    }
+
+    private void collectFiles(final File dir, final List<URI> uris) {
+        final File[] files = getFiles(dir);
+        if ((files == null) || (files.length == 0)) {
+            LOG.debug("No files found in directory: {}", dir);
+        } else {
+            for (final File file : files) {
+                if (file.isFile()) {
+                    uris.add(URI.createFileURI(Utils4J.getCanonicalPath(file)));
+                } else {
+                    collectFiles(file, uris);
+                }
+            }
+        }
     }
 
     private void parseDirs() {
@@ -150,8 +480,14 @@ public abstract class AbstractEMFParser<CONFIG_TYPE> extends AbstractParser<CONF
      * Tries to resolve all proxies.
      */
     protected final void resolveProxies() {
-        final List<String> unresolved = new ArrayList<>();
-        if (!resolvedAllProxies(unresolved, 0)) {
+        final MetricsListener metrics = Metrics.getListener();
+        final long start = System.nanoTime();
+        final Set<String> unresolved = new LinkedHashSet<>();
+        final boolean resolved = resolvedAllProxies(unresolved);
+        if (metrics != null) {
+            metrics.resolved(getClass().getSimpleName(), System.nanoTime() - start, unresolved.size());
+        }
+        if (!resolved) {
             LOG.warn("Could not resolve the following proxies ({}):", unresolved.size());
             for (final String ref : unresolved) {
                 LOG.warn("Not found: {}", ref);
@@ -203,7 +539,7 @@ public abstract class AbstractEMFParser<CONFIG_TYPE> extends AbstractParser<CONF
         } else {
             for (final File file : files) {
                 if (file.isFile()) {
-                    final Resource resource = resourceSet.getResource(URI.createFileURI(Utils4J.getCanonicalPath(file)), true);
+                    final Resource resource = loadResource(resourceSet, URI.createFileURI(Utils4J.getCanonicalPath(file)));
                     final EList<Diagnostic> diagnostics = resource.getErrors();
                     if (diagnostics.isEmpty()) {
                         LOG.debug("Parsed {}", file);
@@ -219,73 +555,226 @@ public abstract class AbstractEMFParser<CONFIG_TYPE> extends AbstractParser<CONF
     }
 
     /**
-     * Determines if all proxies in the model are resolved.
+     * Determines if all proxies in the model are resolved. All unresolved references are logged.
      * 
      * @return {@code true} if there are no more proxies in the model.
      */
     public boolean isModelFullyResolved() {
+        return isModelFullyResolved(0);
+    }
 
-        boolean resolved = true;
-        final Set<EObject> eObjects = findAllEObjects(resourceSet);
-        final Iterator<EObject> it = eObjects.iterator();
-        while (it.hasNext()) {
-            final EObject eObj = it.next();
-            if (eObj instanceof InternalEObject) {
-                final InternalEObject iObj = (InternalEObject) eObj;
-                for (final EObject crossRef : iObj.eCrossReferences()) {
-                    if (crossRef.eIsProxy()) {
-                        LOG.error("Unresolved: {}", crossRef);
-                        resolved = false;
+    /**
+     * Determines if all proxies in the model are resolved. The objects are streamed resource by resource without collecting them first. If
+     * more than one thread is configured, the resources are scanned in parallel for objects that hold proxies. Only the cross references of
+     * those objects are resolved afterwards on the calling thread, as resolving may load resources into the resource set. Both modes
+     * resolve through the owning feature, so the proxies are replaced in the model the same way. The references between the resources are
+     * recorded while checking, so a later incremental parse only has to resolve the resources that depend on the reloaded ones.
+     * 
+     * @param maxErrors
+     *            Maximum number of unresolved references to find before the check stops - A value less than 1 checks the complete model.
+     * 
+     * @return {@code true} if there are no more proxies in the model.
+     */
+    public final boolean isModelFullyResolved(final int maxErrors) {
+
+        final List<Resource> resources = new ArrayList<>(resourceSet.getResources());
+        final int limit;
+        if (maxErrors < 1) {
+            limit = Integer.MAX_VALUE;
+        } else {
+            limit = maxErrors;
+        }
+
+        // The index is only complete if all references were visited
+        dependencies.clear();
+        int errors = 0;
+        if (threads > 1 && resources.size() > 1) {
+            final List<ScanResult> results = scan(resources);
+            for (int i = 0; i < resources.size(); i++) {
+                final Resource resource = resources.get(i);
+                final ScanResult result = results.get(i);
+                for (final URI target : result.targets) {
+                    dependencies.add(resource.getURI(), target);
+                }
+                for (final EObject owner : result.owners) {
+                    // Accessing the resolving list replaces the proxies in the owning feature
+                    for (final EObject crossRef : owner.eCrossReferences()) {
+                        dependencies.record(resource, crossRef);
+                        if (crossRef.eIsProxy()) {
+                            LOG.error("Unresolved: {}", crossRef);
+                            errors++;
+                            if (errors >= limit) {
+                                return false;
+                            }
+                        }
+                    }
+                }
+            }
+        } else {
+            for (final Resource resource : resources) {
+                final Iterator<EObject> it = resource.getAllContents();
+                while (it.hasNext()) {
+                    for (final EObject crossRef : it.next().eCrossReferences()) {
+                        dependencies.record(resource, crossRef);
+                        if (crossRef.eIsProxy()) {
+                            LOG.error("Unresolved: {}", crossRef);
+                            errors++;
+                            if (errors >= limit) {
+                                return false;
+                            }
+                        }
                     }
                 }
             }
         }
-        return resolved;
+        // Resources loaded on demand were not visited
+        if (resources.size() == resourceSet.getResources().size()) {
+            dependencies.markComplete();
+        }
+        return errors == 0;
 
     }
 
-    private boolean resolvedAllProxies(final List<String> unresolved, final int resourcesProcessedBefore) {
+    /**
+     * Determines if all references are resolved after the last call to {@link #parseModel(Set)}. If the references between the resources
+     * were known, only the reloaded and dependent resources were resolved while reloading and the result of that is returned. Otherwise the
+     * complete model is checked.
+     * 
+     * @return {@code true} if there are no more proxies in the model.
+     */
+    public final boolean isReloadedModelFullyResolved() {
+        if (reloadResolved == null) {
+            return isModelFullyResolved();
+        }
+        return reloadResolved;
+    }
+
+    /**
+     * Returns the index of the references between the resources.
+     * 
+     * @return Index - Only complete after a complete check of the model.
+     */
+    final ResourceDependencies getDependencies() {
+        return dependencies;
+    }
+
+    /**
+     * Scans the resources in parallel for objects with cross references that are proxies. The model is only read and no proxy is resolved.
+     * The contents of every resource are accessed once on the calling thread before, so resources that lazily install derived state or
+     * adapters on first access (Like Xtext resources) do this before the workers iterate them. The workers only use non resolving
+     * iterators. The resources referenced by already resolved references are collected for the index.
+     * 
+     * @param resources
+     *            Resources to scan.
+     * 
+     * @return Result per resource in the order of the resources.
+     */
+    private List<ScanResult> scan(final List<Resource> resources) {
+
+        final List<Callable<ScanResult>> tasks = new ArrayList<>(resources.size());
+        for (final Resource resource : resources) {
+            resource.getContents();
+            tasks.add(() -> {
+                final ScanResult result = new ScanResult();
+                final Iterator<EObject> it = resource.getAllContents();
+                while (it.hasNext()) {
+                    final EObject eObj = it.next();
+                    boolean owner = false;
+                    final Iterator<EObject> refIt = basicIterator(eObj.eCrossReferences());
+                    while (refIt.hasNext()) {
+                        final EObject crossRef = refIt.next();
+                        if (crossRef.eIsProxy()) {
+                            owner = true;
+                        } else {
+                            final Resource target = crossRef.eResource();
+                            if (target != null && target != resource) {
+                                result.targets.add(target.getURI());
+                            }
+                        }
+                    }
+                    if (owner) {
+                        result.owners.add(eObj);
+                    }
+                }
+                return result;
+            });
+        }
 
-        final Set<EObject> eObjects = findAllEObjects(resourceSet);
+        final Outcome<ScanResult> outcome;
+        final ExecutorService executor = ParallelExecution.newExecutor("emf-check", threads);
+        try {
+            outcome = ParallelExecution.invokeAll(executor, tasks, true);
+        } finally {
+            executor.shutdownNow();
+        }
+        if (!outcome.getErrors().isEmpty()) {
+            final Throwable cause = outcome.getErrors().get(0).getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException("Error checking resource: " + resources.get(outcome.getErrors().get(0).getIndex()).getURI(),
+                    cause);
+        }
+        if (outcome.isCancelled()) {
+            throw new IllegalStateException("Checking resources was interrupted");
+        }
+        return outcome.getResults();
+    }
 
-        // Check if we discovered any new resources
-        final int totalResources = resourceSet.getResources().size();
-        final boolean discoveredNewResources = (totalResources != resourcesProcessedBefore);
-        if (!discoveredNewResources) {
-            return true;
+    @SuppressWarnings("unchecked")
+    private static Iterator<EObject> basicIterator(final EList<EObject> list) {
+        if (list instanceof InternalEList) {
+            return ((InternalEList<EObject>) list).basicIterator();
         }
+        return list.iterator();
+    }
+
+    /**
+     * Resolves all cross references using a work list of resources. Every resource is visited exactly once, including resources that are
+     * loaded on demand while resolving the references of other resources.
+     * 
+     * @param unresolved
+     *            Set the proxy URIs that could not be resolved will be added to.
+     * 
+     * @return {@code true} if all references could be resolved.
+     */
+    private boolean resolvedAllProxies(final Set<String> unresolved) {
 
-        // Resolve references
-        boolean failure = false;
+        final long start = System.currentTimeMillis();
+        final List<Resource> resources = resourceSet.getResources();
+        final int initialResources = resources.size();
+        int objects = 0;
         int resolved = 0;
-        final int count = eObjects.size();
-        final Iterator<EObject> it = eObjects.iterator();
-        int i = 0;
-        while (it.hasNext()) {
-            final EObject eObj = it.next();
-            if (eObj instanceof InternalEObject) {
-                final InternalEObject iObj = (InternalEObject) eObj;
-                for (final EObject crossRef : iObj.eCrossReferences()) {
+        dependencies.clear();
+
+        // Resources loaded on demand are appended to the list and will be visited too
+        for (int i = 0; i < resources.size(); i++) {
+            final Resource resource = resources.get(i);
+            final Iterator<EObject> it = resource.getAllContents();
+            while (it.hasNext()) {
+                final EObject eObj = it.next();
+                objects++;
+                for (final EObject crossRef : eObj.eCrossReferences()) {
                     final EObject resolvedRef = EcoreUtil.resolve(crossRef, resourceSet);
-                    final String resolvedRefStr = getStrRef(resolvedRef);
+                    dependencies.record(resource, resolvedRef);
                     if (resolvedRef.eIsProxy()) {
-                        failure = true;
-                        if (!unresolved.contains(resolvedRefStr)) {
-                            unresolved.add(resolvedRefStr);
-                        }
+                        unresolved.add(getStrRef(resolvedRef));
                     } else {
                         resolved++;
-                        unresolved.remove(resolvedRefStr);
                     }
                 }
-                if ((i % 1000) == 0) {
-                    LOG.debug("Finished {} of {} references", i, count);
-                }
-                i++;
+            }
+            if (((i + 1) % 100) == 0) {
+                LOG.debug("Finished {} of {} resources - Objects: {}, Resolved: {}, Unresolved: {}", i + 1, resources.size(), objects,
+                        resolved, unresolved.size());
             }
         }
-        LOG.debug("Cross references - Resolved: {}, Unresolved: {}", resolved, unresolved.size());
-        return !failure && resolvedAllProxies(unresolved, totalResources);
+
+        LOG.info("Cross references - Resources: {} ({} loaded on demand), Objects: {}, Resolved: {}, Unresolved: {}, Time: {} ms",
+                resources.size(), resources.size() - initialResources, objects, resolved, unresolved.size(),
+                System.currentTimeMillis() - start);
+        dependencies.markComplete();
+        return unresolved.isEmpty();
     }
 
     private static String getStrRef(final EObject resolvedRef) {
@@ -299,22 +788,6 @@ public abstract class AbstractEMFParser<CONFIG_TYPE> extends AbstractParser<CONF
         return resolvedRef.toString();
     }
 
-    /**
-     * Returns a list of all objects.
-     * 
-     * @return List.
-     */
-    private static Set<EObject> findAllEObjects(final ResourceSet resourceSet) {
-        final Set<EObject> list = new HashSet<>();
-        for (final Iterator<Notifier> i = resourceSet.getAllContents(); i.hasNext();) {
-            final Notifier next = i.next();
-            if (next instanceof EObject) {
-                list.add((EObject) next);
-            }
-        }
-        return list;
-    }
-
     /**
      * Returns the model directories.
      * 
@@ -426,6 +899,49 @@ public abstract class AbstractEMFParser<CONFIG_TYPE> extends AbstractParser<CONF
         }
     }
 
+    /**
+     * Returns the number of threads used for loading the resources.
+     * 
+     * @return Number of threads - A value of 1 means sequential loading.
+     */
+    protected final int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Sets the number of threads used for loading the resources. With more than one thread, every resource is loaded into a separate
+     * resource set and moved into the final resource set afterwards.
+     * 
+     * @param threads
+     *            Number of threads - A value of 1 means sequential loading. Must be greater than zero.
+     */
+    protected final void setThreads(final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Expected a value greater than zero, but was: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Returns the cache for parsed resources.
+     * 
+     * @return Cache or NULL if parsed resources are not cached.
+     */
+    protected final BinaryResourceCache getResourceCache() {
+        return resourceCache;
+    }
+
+    /**
+     * Sets the cache for parsed resources. Model files that did not change since they were cached are loaded from the cache instead of
+     * being parsed.
+     * 
+     * @param resourceCache
+     *            Cache or NULL to always parse the model files.
+     */
+    protected final void setResourceCache(final BinaryResourceCache resourceCache) {
+        this.resourceCache = resourceCache;
+    }
+
     /**
      * Returns the information if an error happened in the last parse process.
      * 
@@ -435,4 +951,17 @@ public abstract class AbstractEMFParser<CONFIG_TYPE> extends AbstractParser<CONF
         return error;
     }
 
+    /**
+     * Result of scanning a single resource.
+     */
+    private static final class ScanResult {
+
+        /** Objects holding at least one proxy. */
+        private final List<EObject> owners = new ArrayList<>();
+
+        /** Other resources referenced by resolved references. */
+        private final Set<URI> targets = new HashSet<>();
+
+    }
+
 }
@@ -0,0 +1,334 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.emf;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.impl.BinaryResourceImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.fuin.objects4j.common.Contract;
+import org.fuin.srcgen4j.core.base.GeneratedFileManifest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Disk cache that stores parsed EMF resources in the EMF binary format. A cache entry is keyed by the hash of the resource's URI, the
+ * content of the model file and a version of the meta model (For example the grammar of an Xtext DSL), so a changed file or language never
+ * hits an outdated entry. As the cross references are stored resolved, they point to objects inside other files. Every entry therefore
+ * also records the hashes of all files it references and is dropped if one of them changed. Unchanged files are loaded as
+ * {@link BinaryResourceImpl} without running the original parser and linker. Resources loaded from the cache only contain the model: The
+ * node model of an Xtext resource (Source text, offsets and hidden tokens) is lost, so code relying on {@code NodeModelUtils} will not work
+ * with them. The total size of the cache directory is limited; the least recently used entries are deleted first. Errors reading or writing
+ * the cache are only logged and the file is parsed as usual. Instances are thread safe.
+ */
+public final class BinaryResourceCache {
+
+    /** Default maximum size of the cache directory in megabytes. */
+    public static final int DEFAULT_MAX_SIZE_MB = 256;
+
+    private static final Logger LOG = LoggerFactory.getLogger(BinaryResourceCache.class);
+
+    private static final String EXTENSION = ".bin";
+
+    /** Changes whenever the layout of a cache entry changes. */
+    private static final int FORMAT = 2;
+
+    private final File dir;
+
+    private final long maxBytes;
+
+    private final String version;
+
+    private final Map<URI, String> keys;
+
+    /**
+     * Constructor without meta model version.
+     * 
+     * @param dir
+     *            Cache directory - Will be created if it does not exist. Cannot be NULL.
+     * @param maxBytes
+     *            Maximum size of all cache entries in bytes.
+     */
+    public BinaryResourceCache(final File dir, final long maxBytes) {
+        this(dir, maxBytes, "");
+    }
+
+    /**
+     * Constructor with all data.
+     * 
+     * @param dir
+     *            Cache directory - Will be created if it does not exist. Cannot be NULL.
+     * @param maxBytes
+     *            Maximum size of all cache entries in bytes.
+     * @param version
+     *            Version of the meta model or grammar - Entries created with another version are never used. Cannot be NULL.
+     */
+    public BinaryResourceCache(final File dir, final long maxBytes, final String version) {
+        super();
+        Contract.requireArgNotNull("dir", dir);
+        Contract.requireArgNotNull("version", version);
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        this.version = version;
+        this.keys = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the cache directory.
+     * 
+     * @return Directory.
+     */
+    public final File getDir() {
+        return dir;
+    }
+
+    /**
+     * Loads a resource from the cache.
+     * 
+     * @param uri
+     *            File URI of the resource - Cannot be NULL.
+     * 
+     * @return Loaded resource that is not yet part of any resource set or NULL if there is no valid cache entry.
+     */
+    public final Resource load(final URI uri) {
+        Contract.requireArgNotNull("uri", uri);
+        if (!uri.isFile()) {
+            return null;
+        }
+        final String key = key(uri);
+        if (key == null) {
+            return null;
+        }
+        final File cacheFile = new File(dir, key + EXTENSION);
+        if (!cacheFile.exists()) {
+            LOG.debug("Cache miss: {}", uri);
+            return null;
+        }
+        final Resource resource = new BinaryResourceImpl(uri);
+        try (final InputStream in = new BufferedInputStream(Files.newInputStream(cacheFile.toPath()))) {
+            final String changed = changedTarget(new DataInputStream(in));
+            if (changed != null) {
+                LOG.debug("Dropping outdated cache entry for {} - Referenced file changed: {}", uri, changed);
+                in.close();
+                delete(cacheFile);
+                return null;
+            }
+            resource.load(in, null);
+        } catch (final IOException | RuntimeException ex) {
+            LOG.warn("Dropping unreadable cache entry for " + uri + ": " + cacheFile, ex);
+            delete(cacheFile);
+            return null;
+        }
+        // Mark as recently used
+        if (!cacheFile.setLastModified(System.currentTimeMillis())) {
+            LOG.debug("Wasn't able to update time stamp: {}", cacheFile);
+        }
+        LOG.debug("Cache hit: {}", uri);
+        return resource;
+    }
+
+    /**
+     * Stores a resource in the cache. All cross references are resolved before the resource is written, so the entry contains only plain
+     * URIs to other resources. The hashes of the referenced files are stored with the entry. Resources with errors or references to files
+     * that can't be read are never stored.
+     * 
+     * @param resource
+     *            Resource to store - Cannot be NULL.
+     */
+    public final void store(final Resource resource) {
+        Contract.requireArgNotNull("resource", resource);
+        final URI uri = resource.getURI();
+        if (!uri.isFile() || !resource.getErrors().isEmpty() || (resource instanceof BinaryResourceImpl)) {
+            return;
+        }
+        final String key = key(uri);
+        if (key == null) {
+            return;
+        }
+        final File cacheFile = new File(dir, key + EXTENSION);
+        if (cacheFile.exists()) {
+            return;
+        }
+        EcoreUtil.resolveAll(resource);
+        final Map<String, String> targets = targets(resource);
+        if (targets == null) {
+            return;
+        }
+        final File tmpFile = new File(dir, key + ".tmp");
+        try {
+            Files.createDirectories(dir.toPath());
+            try (final OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmpFile.toPath()))) {
+                final DataOutputStream dos = new DataOutputStream(out);
+                dos.writeInt(FORMAT);
+                dos.writeInt(targets.size());
+                for (final Map.Entry<String, String> target : targets.entrySet()) {
+                    dos.writeUTF(target.getKey());
+                    dos.writeUTF(target.getValue());
+                }
+                dos.flush();
+                final BinaryResourceImpl.EObjectOutputStream eos = new BinaryResourceImpl.EObjectOutputStream(out, null);
+                eos.saveResource(resource);
+                eos.flush();
+            }
+            Files.move(tmpFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            LOG.debug("Cached: {}", uri);
+        } catch (final IOException | RuntimeException ex) {
+            LOG.warn("Wasn't able to cache " + uri + ": " + cacheFile, ex);
+            delete(tmpFile);
+        }
+    }
+
+    /**
+     * Determines the hashes of all other files referenced by a resource.
+     * 
+     * @param resource
+     *            Resource with resolved references.
+     * 
+     * @return Hash by URI of the referenced file or NULL if one of the files can't be read.
+     */
+    private Map<String, String> targets(final Resource resource) {
+        final Map<String, String> targets = new TreeMap<>();
+        final Iterator<EObject> it = resource.getAllContents();
+        while (it.hasNext()) {
+            for (final EObject crossRef : it.next().eCrossReferences()) {
+                final URI target = EcoreUtil.getURI(crossRef).trimFragment();
+                if (target.isFile() && !target.equals(resource.getURI()) && !targets.containsKey(target.toString())) {
+                    final String hash = key(target);
+                    if (hash == null) {
+                        LOG.debug("Not caching {} - Referenced file can't be read: {}", resource.getURI(), target);
+                        return null;
+                    }
+                    targets.put(target.toString(), hash);
+                }
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Reads the header of a cache entry and compares the recorded hashes of the referenced files with the current ones.
+     * 
+     * @param in
+     *            Stream positioned at the start of the entry.
+     * 
+     * @return URI of the first referenced file that changed or NULL if the entry is still valid.
+     * 
+     * @throws IOException
+     *             Error reading the header or unknown format.
+     */
+    private String changedTarget(final DataInputStream in) throws IOException {
+        final int format = in.readInt();
+        if (format != FORMAT) {
+            throw new IOException("Unknown cache entry format: " + format);
+        }
+        final int count = in.readInt();
+        String changed = null;
+        for (int i = 0; i < count; i++) {
+            final String target = in.readUTF();
+            final String hash = in.readUTF();
+            if (changed == null && !hash.equals(key(URI.createURI(target)))) {
+                changed = target;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Deletes the least recently used entries until the total size of the cache is below the limit.
+     */
+    public final synchronized void evict() {
+        final File[] files = dir.listFiles((d, name) -> name.endsWith(EXTENSION));
+        if (files == null) {
+            return;
+        }
+        long total = 0;
+        for (final File file : files) {
+            total += file.length();
+        }
+        if (total <= maxBytes) {
+            return;
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        int deleted = 0;
+        for (int i = 0; (i < files.length) && (total > maxBytes); i++) {
+            total = total - files[i].length();
+            delete(files[i]);
+            deleted++;
+        }
+        LOG.info("Evicted {} cache entries: {}", deleted, dir);
+    }
+
+    /**
+     * Forgets the hash calculated for a file. Must be called if a file changed while the cache is in use.
+     * 
+     * @param uri
+     *            File URI of the resource - Cannot be NULL.
+     */
+    public final void forget(final URI uri) {
+        keys.remove(uri);
+    }
+
+    private String key(final URI uri) {
+        String key = keys.get(uri);
+        if (key == null) {
+            try {
+                final MessageDigest digest = GeneratedFileManifest.createDigest();
+                digest.update(version.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(uri.toString().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(Files.readAllBytes(new File(uri.toFileString()).toPath()));
+                key = GeneratedFileManifest.toHex(digest.digest());
+                keys.put(uri, key);
+            } catch (final IOException ex) {
+                LOG.debug("Wasn't able to hash: " + uri, ex);
+                return null;
+            }
+        }
+        return key;
+    }
+
+    private static void delete(final File file) {
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (final IOException ex) {
+            LOG.warn("Wasn't able to delete: " + file, ex);
+        }
+    }
+
+}
@@ -33,13 +33,23 @@ public interface CodeReferenceRegistry {
     public String getReference(String uniqueName);
 
     /**
-     * Sets a fully qualified name for a unique reference name.
+     * Sets a fully qualified name for a unique reference name. Setting NULL removes the reference, so {@link #getReference(String)} returns
+     * NULL afterwards like for a name that was never set.
      * 
      * @param uniqueName
-     *            Name that uniquely identifies an artifact.
+     *            Name that uniquely identifies an artifact - Cannot be NULL.
      * @param fqn
-     *            Fully qualified name of the artifact for use in the source code.
+     *            Fully qualified name of the artifact for use in the source code or NULL to remove the reference.
      */
     public void putReference(String uniqueName, String fqn);
 
+    /**
+     * Returns the table used by all code snippet contexts of this registry to share the fully qualified names. Default is NULL.
+     * 
+     * @return Name table or NULL if every context stores the names in it's own hash set.
+     */
+    public default FqnTable getFqnTable() {
+        return null;
+    }
+
 }
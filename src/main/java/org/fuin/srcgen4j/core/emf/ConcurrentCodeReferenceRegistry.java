@@ -0,0 +1,94 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.emf;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.fuin.objects4j.common.Contract;
+
+/**
+ * Thread safe implementation of the code reference registry. References are usually collected during the preparation run and only read
+ * during the real run. Calling {@link #freeze()} after the preparation run replaces the concurrent map with a read-only snapshot, so
+ * reads no longer pay for the concurrent map. Reads never lock. The {@link EMFGenerator} freezes registries found in the context map only
+ * if it runs in parallel mode - In that case adding references during the real run fails with an {@link IllegalStateException}.
+ */
+public final class ConcurrentCodeReferenceRegistry implements CodeReferenceRegistry {
+
+    private final Map<String, String> map;
+
+    private final FqnTable fqnTable;
+
+    private volatile Map<String, String> snapshot;
+
+    /**
+     * Default constructor.
+     */
+    public ConcurrentCodeReferenceRegistry() {
+        super();
+        map = new ConcurrentHashMap<>();
+        fqnTable = new FqnTable();
+    }
+
+    @Override
+    public final String getReference(final String uniqueName) {
+        final Map<String, String> frozen = snapshot;
+        if (frozen == null) {
+            return map.get(uniqueName);
+        }
+        return frozen.get(uniqueName);
+    }
+
+    @Override
+    public final void putReference(final String uniqueName, final String fqn) {
+        Contract.requireArgNotNull("uniqueName", uniqueName);
+        if (snapshot != null) {
+            throw new IllegalStateException("Registry is frozen - Cannot add: " + uniqueName + "=" + fqn);
+        }
+        if (fqn == null) {
+            map.remove(uniqueName);
+        } else {
+            map.put(uniqueName, fqnTable.intern(fqn));
+        }
+    }
+
+    @Override
+    public final FqnTable getFqnTable() {
+        return fqnTable;
+    }
+
+    /**
+     * Makes the registry read-only. Does nothing if the registry is already frozen.
+     */
+    public final synchronized void freeze() {
+        if (snapshot == null) {
+            snapshot = new HashMap<>(map);
+        }
+    }
+
+    /**
+     * Returns the information if the registry is read-only.
+     * 
+     * @return TRUE if {@link #freeze()} was called, else FALSE.
+     */
+    public final boolean isFrozen() {
+        return snapshot != null;
+    }
+
+}
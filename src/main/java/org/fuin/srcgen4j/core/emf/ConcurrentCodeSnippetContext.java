@@ -0,0 +1,103 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.emf;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Thread safe context that can be shared by code fragments created in parallel. The imports are stored as IDs of the registry's
+ * {@link FqnTable} or as names if the registry doesn't provide a table.
+ */
+public final class ConcurrentCodeSnippetContext implements CodeSnippetContext {
+
+    private final CodeReferenceRegistry refReg;
+
+    /** Shared table of the registry or NULL. */
+    private final FqnTable fqnTable;
+
+    /** Imports if there is a table, else NULL. */
+    private final BitSet ids;
+
+    /** Imports if there is no table, else NULL. */
+    private final Set<String> names;
+
+    private final Object lock = new Object();
+
+    private Set<String> sortedImports;
+
+    /**
+     * Constructor with registry.
+     * 
+     * @param refReg
+     *            Reference registry - Should be thread safe like {@link ConcurrentCodeReferenceRegistry}.
+     */
+    public ConcurrentCodeSnippetContext(final CodeReferenceRegistry refReg) {
+        super();
+        this.refReg = refReg;
+        this.fqnTable = refReg.getFqnTable();
+        if (fqnTable == null) {
+            this.ids = null;
+            this.names = new HashSet<>();
+        } else {
+            this.ids = new BitSet();
+            this.names = null;
+        }
+    }
+
+    @Override
+    public final void requiresImport(final String fqn) {
+        synchronized (lock) {
+            if (SimpleCodeSnippetContext.add(fqnTable, ids, names, fqn)) {
+                sortedImports = null;
+            }
+        }
+    }
+
+    @Override
+    public final void requiresReference(final String uniqueName) {
+        requiresImport(getReference(uniqueName));
+    }
+
+    @Override
+    public final String getReference(final String uniqueName) {
+        final String resolved = refReg.getReference(uniqueName);
+        if (resolved == null) {
+            return uniqueName;
+        }
+        return resolved;
+    }
+
+    /**
+     * Returns a set of required import names. The names are sorted by their natural (alphabetical) order, like in
+     * {@link SimpleCodeSnippetContext#getImports()}.
+     * 
+     * @return Fully qualified names to import in alphabetical order.
+     */
+    public final Set<String> getImports() {
+        synchronized (lock) {
+            if (sortedImports == null) {
+                sortedImports = Collections.unmodifiableSet(SimpleCodeSnippetContext.toNames(fqnTable, ids, names));
+            }
+            return sortedImports;
+        }
+    }
+
+}
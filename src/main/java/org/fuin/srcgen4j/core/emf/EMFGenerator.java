@@ -17,10 +17,19 @@
  */
 package org.fuin.srcgen4j.core.emf;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
 
 import javax.validation.constraints.NotNull;
 
@@ -29,6 +38,7 @@ import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.fuin.srcgen4j.commons.ArtifactFactory;
 import org.fuin.srcgen4j.commons.GenerateException;
 import org.fuin.srcgen4j.commons.GeneratedArtifact;
+import org.fuin.srcgen4j.core.base.ParallelExecution;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,10 +49,25 @@ public final class EMFGenerator extends AbstractEMFGenerator<EMFGeneratorConfig>
 
     private static final Logger LOG = LoggerFactory.getLogger(EMFGenerator.class);
 
+    /** Maximum number of submitted but not yet finished notifiers per thread - Limits the memory used by created artifacts. */
+    private static final int MAX_PENDING_PER_THREAD = 16;
+
     private final Set<ArtifactFactory<Notifier>> notifierFactories;
 
     private final Set<ArtifactFactory<ResourceSet>> resourceSetFactories;
 
+    /** Factories by concrete notifier class - Avoids checking all factories for every single notifier. */
+    private final Map<Class<?>, ArtifactFactory<Notifier>[]> factoriesByType;
+
+    /** Creates and writes artifacts with thread safe factories - Only set during a parallel real run. */
+    private ExecutorService factoryExecutor;
+
+    private Semaphore pending;
+
+    private int maxPending;
+
+    private Queue<Throwable> errors;
+
     /**
      * Default constructor.
      */
@@ -50,6 +75,7 @@ public final class EMFGenerator extends AbstractEMFGenerator<EMFGeneratorConfig>
         super();
         notifierFactories = new HashSet<ArtifactFactory<Notifier>>();
         resourceSetFactories = new HashSet<ArtifactFactory<ResourceSet>>();
+        factoriesByType = new ConcurrentHashMap<>();
     }
 
     @Override
@@ -57,6 +83,25 @@ public final class EMFGenerator extends AbstractEMFGenerator<EMFGeneratorConfig>
         return EMFGeneratorConfig.class;
     }
 
+    @Override
+    protected final boolean isManifestEnabled() {
+        return getSpecificConfig().isManifest();
+    }
+
+    @Override
+    protected final boolean isInMemoryEnabled() {
+        return getSpecificConfig().isInMemory();
+    }
+
+    @Override
+    protected final int getWriteThreads() {
+        final Integer writeThreads = getSpecificConfig().getWriteThreads();
+        if (writeThreads == null) {
+            return 0;
+        }
+        return ParallelExecution.effectiveThreads(writeThreads);
+    }
+
     @Override
     public final void init() {
 
@@ -75,27 +120,58 @@ public final class EMFGenerator extends AbstractEMFGenerator<EMFGeneratorConfig>
             notifierFactories.add(factory);
             LOG.debug("Added notifier factory for model type '{}': {}", factory.getModelType(), factory.getClass());
         }
+        factoriesByType.clear();
+
+    }
+
+    @Override
+    protected final Map<String, Object> createContext() {
+        if (ParallelExecution.effectiveThreads(getSpecificConfig().getThreads()) > 1) {
+            return new ConcurrentHashMap<>();
+        }
+        return new HashMap<>();
+    }
+
+    @Override
+    protected final void beforeGenerate(@NotNull final Map<String, Object> context, final boolean incremental,
+            final boolean preparationRun) throws GenerateException {
+
+        final int threads = ParallelExecution.effectiveThreads(getSpecificConfig().getThreads());
+        if (!preparationRun && threads > 1) {
+            LOG.info("Creating artifacts with {} threads", threads);
+            final String name = getGeneratorConfig().getName();
+            factoryExecutor = ParallelExecution.newExecutor(name, threads);
+            maxPending = threads * MAX_PENDING_PER_THREAD;
+            pending = new Semaphore(maxPending);
+            errors = new ConcurrentLinkedQueue<>();
+        }
 
     }
 
     @Override
     protected final boolean wants(final Notifier notifier) {
-        for (final ArtifactFactory<Notifier> factory : notifierFactories) {
-            if (factory.getModelType().isAssignableFrom(notifier.getClass())) {
-                return true;
-            }
+        return findFactories(notifier).length > 0;
+    }
+
+    private ArtifactFactory<Notifier>[] findFactories(final Notifier notifier) {
+        final Class<?> type = notifier.getClass();
+        final ArtifactFactory<Notifier>[] factories = factoriesByType.get(type);
+        if (factories == null) {
+            return factoriesByType.computeIfAbsent(type, this::resolveFactories);
         }
-        return false;
+        return factories;
     }
 
-    private Set<ArtifactFactory<Notifier>> findFactories(final Notifier notifier) {
-        final Set<ArtifactFactory<Notifier>> factories = new HashSet<ArtifactFactory<Notifier>>();
+    @SuppressWarnings("unchecked")
+    private ArtifactFactory<Notifier>[] resolveFactories(final Class<?> type) {
+        final List<ArtifactFactory<Notifier>> factories = new ArrayList<>();
         for (final ArtifactFactory<Notifier> factory : notifierFactories) {
-            if (factory.getModelType().isAssignableFrom(notifier.getClass())) {
+            if (factory.getModelType().isAssignableFrom(type)) {
                 factories.add(factory);
             }
         }
-        return factories;
+        LOG.debug("Resolved {} factories for: {}", factories.size(), type);
+        return factories.toArray(new ArtifactFactory[factories.size()]);
     }
 
     @Override
@@ -104,19 +180,24 @@ public final class EMFGenerator extends AbstractEMFGenerator<EMFGeneratorConfig>
 
         LOG.debug("Generate from {}", Notifier.class.getSimpleName());
 
-        final Set<ArtifactFactory<Notifier>> factories = findFactories(notifier);
-        if (factories.isEmpty()) {
+        final ArtifactFactory<Notifier>[] factories = findFactories(notifier);
+        if (factories.length == 0) {
             LOG.warn("Was asked to generate an artifact type I didn't request: {}", notifier.getClass());
             return;
         }
 
-        for (final ArtifactFactory<Notifier> factory : factories) {
+        for (int i = 0; i < factories.length; i++) {
+            final ArtifactFactory<Notifier> factory = factories[i];
             if (!incremental || factory.isIncremental()) {
                 LOG.debug("Generate with factory {}", factory.getClass().getSimpleName());
-                final List<GeneratedArtifact> generatedArtifacts = factory.create(notifier, context, preparationRun);
-                if (!preparationRun) {
-                    for (final GeneratedArtifact generatedArtifact : generatedArtifacts) {
-                        write(generatedArtifact);
+                if (!preparationRun && factoryExecutor != null) {
+                    submit(context, notifier, factory);
+                } else {
+                    final List<GeneratedArtifact> generatedArtifacts = create(factory, notifier, context, preparationRun);
+                    if (!preparationRun) {
+                        for (final GeneratedArtifact generatedArtifact : generatedArtifacts) {
+                            write(generatedArtifact);
+                        }
                     }
                 }
             }
@@ -124,14 +205,101 @@ public final class EMFGenerator extends AbstractEMFGenerator<EMFGeneratorConfig>
 
     }
 
+    private void submit(final Map<String, Object> context, final Notifier notifier, final ArtifactFactory<Notifier> factory)
+            throws GenerateException {
+
+        if (!errors.isEmpty()) {
+            // Don't create any more artifacts after the first error
+            awaitFactories();
+        }
+
+        if (!(factory instanceof ThreadSafeArtifactFactory)) {
+            // Writing is done by the write stage if asynchronous writes are enabled
+            writeAll(create(factory, notifier, context, false));
+            return;
+        }
+
+        acquire();
+        // Late callbacks after a failed run must not see the fields of the next run
+        final Queue<Throwable> runErrors = errors;
+        final Semaphore runPending = pending;
+        CompletableFuture.runAsync(() -> createAndWrite(factory, notifier, context), factoryExecutor).whenComplete((result, ex) -> {
+            if (ex != null) {
+                runErrors.add(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+            }
+            runPending.release();
+        });
+
+    }
+
+    private void acquire() throws GenerateException {
+        try {
+            pending.acquire();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new GenerateException("Generation was interrupted", ex);
+        }
+    }
+
+    private void createAndWrite(final ArtifactFactory<Notifier> factory, final Notifier notifier, final Map<String, Object> context) {
+        try {
+            writeAll(create(factory, notifier, context, false));
+        } catch (final GenerateException ex) {
+            throw new CompletionException(ex);
+        }
+    }
+
+    private void writeAll(final List<GeneratedArtifact> generatedArtifacts) throws GenerateException {
+        for (final GeneratedArtifact generatedArtifact : generatedArtifacts) {
+            write(generatedArtifact);
+        }
+    }
+
+    /**
+     * Waits until all submitted notifiers are handled by the factories. Their artifacts are written or handed over to the write stage at
+     * that time. The factory threads are stopped in {@link #cleanup(Map, boolean)}.
+     * 
+     * @throws GenerateException
+     *             Creating or writing at least one artifact failed.
+     */
+    private void awaitFactories() throws GenerateException {
+
+        try {
+            pending.acquire(maxPending);
+            pending.release(maxPending);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            errors.add(ex);
+        }
+
+        final List<Throwable> causes = new ArrayList<>(errors);
+        if (!causes.isEmpty()) {
+            for (final Throwable cause : causes) {
+                LOG.error("Error creating artifact", cause);
+            }
+            final GenerateException ex = new GenerateException(
+                    "Error creating " + causes.size() + " artifact(s) - First was: " + causes.get(0).getMessage(), causes.get(0));
+            for (int i = 1; i < causes.size(); i++) {
+                ex.addSuppressed(causes.get(i));
+            }
+            throw ex;
+        }
+
+    }
+
     @Override
     protected final void afterGenerate(@NotNull final Map<String, Object> context, final boolean incremental, final boolean preparationRun)
             throws GenerateException {
 
+        if (!preparationRun && factoryExecutor != null) {
+            awaitFactories();
+            stopWorkers();
+        }
+
         LOG.debug("Generate from {}", ResourceSet.class.getSimpleName());
 
         for (final ArtifactFactory<ResourceSet> factory : resourceSetFactories) {
-            final List<GeneratedArtifact> generatedArtifacts = factory.create(getModel(), context, preparationRun);
+            final List<GeneratedArtifact> generatedArtifacts = create(factory, getModel(), context, preparationRun);
             if (!preparationRun) {
                 for (final GeneratedArtifact generatedArtifact : generatedArtifacts) {
                     write(generatedArtifact);
@@ -139,6 +307,30 @@ public final class EMFGenerator extends AbstractEMFGenerator<EMFGeneratorConfig>
             }
         }
 
+        if (preparationRun && ParallelExecution.effectiveThreads(getSpecificConfig().getThreads()) > 1) {
+            // References are complete now and only read during the parallel real run
+            for (final Object value : context.values()) {
+                if (value instanceof ConcurrentCodeReferenceRegistry) {
+                    ((ConcurrentCodeReferenceRegistry) value).freeze();
+                }
+            }
+        }
+
+    }
+
+    @Override
+    protected final void cleanup(@NotNull final Map<String, Object> context, final boolean incremental) {
+        stopWorkers();
+    }
+
+    private void stopWorkers() {
+        if (factoryExecutor != null) {
+            // Factory tasks write files and must not be interrupted
+            ParallelExecution.shutdown(factoryExecutor);
+            factoryExecutor = null;
+            pending = null;
+            errors = null;
+        }
     }
 
 }
@@ -26,6 +26,7 @@ import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.XmlTransient;
@@ -50,6 +51,22 @@ public class EMFGeneratorConfig extends AbstractElement implements Initializable
     @XmlElement(name = "artifact-factory")
     private List<ArtifactFactoryConfig> factoryConfigs;
 
+    @Nullable
+    @XmlAttribute(name = "manifest")
+    private Boolean manifest;
+
+    @Nullable
+    @XmlAttribute(name = "inMemory")
+    private Boolean inMemory;
+
+    @Nullable
+    @XmlAttribute(name = "threads")
+    private Integer threads;
+
+    @Nullable
+    @XmlAttribute(name = "writeThreads")
+    private Integer writeThreads;
+
     @XmlTransient
     private List<ArtifactFactory<?>> factories;
 
@@ -73,6 +90,92 @@ public class EMFGeneratorConfig extends AbstractElement implements Initializable
         return this;
     }
 
+    /**
+     * Returns the information if a content hash manifest is maintained in the output directories.
+     * 
+     * @return TRUE if unchanged files are detected using the manifest, FALSE (default) if they are always compared by content.
+     */
+    public final boolean isManifest() {
+        if (manifest == null) {
+            return false;
+        }
+        return manifest;
+    }
+
+    /**
+     * Sets the information if a content hash manifest is maintained in the output directories.
+     * 
+     * @param manifest
+     *            TRUE if unchanged files are detected using the manifest, FALSE if they are always compared by content or NULL for the
+     *            default (FALSE).
+     */
+    public final void setManifest(@Nullable final Boolean manifest) {
+        this.manifest = manifest;
+    }
+
+    /**
+     * Returns the information if generated content is compared in memory and written directly to the target file.
+     * 
+     * @return TRUE if no temporary files are used, FALSE (default) if content is rendered into a temporary file first.
+     */
+    public final boolean isInMemory() {
+        if (inMemory == null) {
+            return false;
+        }
+        return inMemory;
+    }
+
+    /**
+     * Sets the information if generated content is compared in memory and written directly to the target file.
+     * 
+     * @param inMemory
+     *            TRUE if no temporary files are used, FALSE if content is rendered into a temporary file first or NULL for the default
+     *            (FALSE).
+     */
+    public final void setInMemory(@Nullable final Boolean inMemory) {
+        this.inMemory = inMemory;
+    }
+
+    /**
+     * Returns the number of threads used for creating artifacts with factories that implement {@link ThreadSafeArtifactFactory}.
+     * 
+     * @return Number of threads, a value less than 1 for one thread per available processor or NULL for sequential generation.
+     */
+    @Nullable
+    public final Integer getThreads() {
+        return threads;
+    }
+
+    /**
+     * Sets the number of threads used for creating artifacts with factories that implement {@link ThreadSafeArtifactFactory}.
+     * 
+     * @param threads
+     *            Number of threads, a value less than 1 for one thread per available processor or NULL for sequential generation.
+     */
+    public final void setThreads(@Nullable final Integer threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Returns the number of threads used for writing the generated artifacts asynchronously.
+     * 
+     * @return Number of I/O threads, a value less than 1 for one thread per available processor or NULL for writing synchronously.
+     */
+    @Nullable
+    public final Integer getWriteThreads() {
+        return writeThreads;
+    }
+
+    /**
+     * Sets the number of threads used for writing the generated artifacts asynchronously.
+     * 
+     * @param writeThreads
+     *            Number of I/O threads, a value less than 1 for one thread per available processor or NULL for writing synchronously.
+     */
+    public final void setWriteThreads(@Nullable final Integer writeThreads) {
+        this.writeThreads = writeThreads;
+    }
+
     /**
      * Returns a list of factories for the given model type.
      * 
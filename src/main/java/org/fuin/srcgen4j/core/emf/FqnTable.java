@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.emf;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.fuin.objects4j.common.Contract;
+
+/**
+ * Assigns a small integer to every distinct fully qualified name. This allows code snippet contexts to store their imports as a bit set
+ * instead of holding their own copies of the same strings. Looking up an existing name never locks. Instances are thread safe.
+ */
+public final class FqnTable {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final Map<String, Integer> ids;
+
+    private volatile String[] names;
+
+    private int size;
+
+    /**
+     * Default constructor.
+     */
+    public FqnTable() {
+        super();
+        ids = new ConcurrentHashMap<>();
+        names = new String[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Returns the ID of a name. The name is added to the table if it is not known yet.
+     * 
+     * @param fqn
+     *            Fully qualified name - Cannot be NULL.
+     * 
+     * @return Zero based ID that is unique within this table.
+     */
+    public final int id(final String fqn) {
+        Contract.requireArgNotNull("fqn", fqn);
+        final Integer id = ids.get(fqn);
+        if (id == null) {
+            return add(fqn);
+        }
+        return id;
+    }
+
+    private synchronized int add(final String fqn) {
+        final Integer existing = ids.get(fqn);
+        if (existing != null) {
+            return existing;
+        }
+        final String[] array;
+        if (size == names.length) {
+            array = Arrays.copyOf(names, size * 2);
+        } else {
+            array = names;
+        }
+        array[size] = fqn;
+        // Publish the array before the ID gets visible to other threads
+        names = array;
+        ids.put(fqn, size);
+        return size++;
+    }
+
+    /**
+     * Returns the name for an ID.
+     * 
+     * @param id
+     *            ID returned by {@link #id(String)}.
+     * 
+     * @return Fully qualified name.
+     */
+    public final String name(final int id) {
+        return names[id];
+    }
+
+    /**
+     * Returns the shared instance of a name.
+     * 
+     * @param fqn
+     *            Fully qualified name - Cannot be NULL.
+     * 
+     * @return Equal name stored in the table.
+     */
+    public final String intern(final String fqn) {
+        return name(id(fqn));
+    }
+
+    /**
+     * Returns the number of names in the table.
+     * 
+     * @return Number of distinct names.
+     */
+    public final int size() {
+        return ids.size();
+    }
+
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.emf;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+
+/**
+ * Index of the cross references between the resources of a resource set. Only the resource URIs are stored, so the index is small compared
+ * to the model. Resources with unresolved references are remembered too, as they may be resolved by any file that is added later. The
+ * index is only used by the thread that parses the model and is not thread safe.
+ */
+final class ResourceDependencies {
+
+    /** Resources that reference a resource, by URI of the referenced resource. */
+    private final Map<URI, Set<URI>> dependents;
+
+    /** Resources referenced by a resource, by URI of the referencing resource. */
+    private final Map<URI, Set<URI>> targets;
+
+    private final Set<URI> unresolved;
+
+    private boolean complete;
+
+    /**
+     * Default constructor.
+     */
+    ResourceDependencies() {
+        super();
+        dependents = new HashMap<>();
+        targets = new HashMap<>();
+        unresolved = new HashSet<>();
+        complete = false;
+    }
+
+    /**
+     * Removes all entries and marks the index as incomplete.
+     */
+    void clear() {
+        dependents.clear();
+        targets.clear();
+        unresolved.clear();
+        complete = false;
+    }
+
+    /**
+     * Marks the index as complete. Should only be called after the cross references of all resources were recorded.
+     */
+    void markComplete() {
+        complete = true;
+    }
+
+    /**
+     * Returns the information if the cross references of all resources were recorded.
+     * 
+     * @return TRUE if the index can be used to find dependent resources.
+     */
+    boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Records a cross reference of an object.
+     * 
+     * @param source
+     *            Resource that contains the object with the reference.
+     * @param crossRef
+     *            Resolved or unresolved target of the reference.
+     */
+    void record(final Resource source, final EObject crossRef) {
+        if (crossRef.eIsProxy()) {
+            unresolved.add(source.getURI());
+            return;
+        }
+        final Resource target = crossRef.eResource();
+        if (target != null && target != source) {
+            add(source.getURI(), target.getURI());
+        }
+    }
+
+    /**
+     * Records that one resource references another.
+     * 
+     * @param source
+     *            URI of the referencing resource.
+     * @param target
+     *            URI of the referenced resource.
+     */
+    void add(final URI source, final URI target) {
+        if (!source.equals(target)) {
+            dependents.computeIfAbsent(target, uri -> new HashSet<>()).add(source);
+            targets.computeIfAbsent(source, uri -> new HashSet<>()).add(target);
+        }
+    }
+
+    /**
+     * Removes all references of a resource, for example because it was reloaded or deleted. References from other resources to it are
+     * kept, as they still have to be resolved again.
+     * 
+     * @param source
+     *            URI of the resource.
+     */
+    void remove(final URI source) {
+        unresolved.remove(source);
+        final Set<URI> removed = targets.remove(source);
+        if (removed != null) {
+            for (final URI target : removed) {
+                final Set<URI> sources = dependents.get(target);
+                if (sources != null) {
+                    sources.remove(source);
+                    if (sources.isEmpty()) {
+                        dependents.remove(target);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns all resources that have to be resolved again after the given resources were reloaded: Resources that reference one of them
+     * and resources that contain unresolved references.
+     * 
+     * @param uris
+     *            URIs of the reloaded resources.
+     * 
+     * @return URIs of dependent resources that are not part of the given URIs.
+     */
+    Set<URI> dependentsOf(final Collection<URI> uris) {
+        final Set<URI> result = new LinkedHashSet<>(unresolved);
+        for (final URI uri : uris) {
+            result.addAll(dependents.getOrDefault(uri, Collections.emptySet()));
+        }
+        result.removeAll(uris);
+        return result;
+    }
+
+}
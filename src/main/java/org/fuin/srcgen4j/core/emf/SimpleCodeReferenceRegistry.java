@@ -20,6 +20,8 @@ package org.fuin.srcgen4j.core.emf;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.fuin.objects4j.common.Contract;
+
 /**
  * Map based implementation of the code reference registry.
  */
@@ -27,12 +29,15 @@ public final class SimpleCodeReferenceRegistry implements CodeReferenceRegistry
 
     private final Map<String, String> map;
 
+    private final FqnTable fqnTable;
+
     /**
      * Default constructor.
      */
     public SimpleCodeReferenceRegistry() {
         super();
         map = new HashMap<String, String>();
+        fqnTable = new FqnTable();
     }
 
     @Override
@@ -42,7 +47,17 @@ public final class SimpleCodeReferenceRegistry implements CodeReferenceRegistry
 
     @Override
     public final void putReference(final String uniqueName, final String fqn) {
-        map.put(uniqueName, fqn);
+        Contract.requireArgNotNull("uniqueName", uniqueName);
+        if (fqn == null) {
+            map.remove(uniqueName);
+        } else {
+            map.put(uniqueName, fqnTable.intern(fqn));
+        }
+    }
+
+    @Override
+    public final FqnTable getFqnTable() {
+        return fqnTable;
     }
 
 }
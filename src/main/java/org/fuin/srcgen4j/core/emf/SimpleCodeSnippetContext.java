@@ -17,18 +17,30 @@
  */
 package org.fuin.srcgen4j.core.emf;
 
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.TreeSet;
 
 /**
- * Simple map based context.
+ * Simple context that stores the imports as IDs of the registry's {@link FqnTable}. If the registry doesn't provide a table, the names
+ * are stored in a hash set instead, so no table is created for every context.
  */
 public final class SimpleCodeSnippetContext implements CodeSnippetContext {
 
     private final CodeReferenceRegistry refReg;
 
-    private final Set<String> imports;
+    /** Shared table of the registry or NULL. */
+    private final FqnTable fqnTable;
+
+    /** Imports if there is a table, else NULL. */
+    private final BitSet ids;
+
+    /** Imports if there is no table, else NULL. */
+    private final Set<String> names;
+
+    private Set<String> sortedImports;
 
     /**
      * Constructor with registry.
@@ -38,22 +50,27 @@ public final class SimpleCodeSnippetContext implements CodeSnippetContext {
      */
     public SimpleCodeSnippetContext(final CodeReferenceRegistry refReg) {
         super();
-        this.imports = new HashSet<String>();
         this.refReg = refReg;
+        this.fqnTable = refReg.getFqnTable();
+        if (fqnTable == null) {
+            this.ids = null;
+            this.names = new HashSet<>();
+        } else {
+            this.ids = new BitSet();
+            this.names = null;
+        }
     }
 
     @Override
     public final void requiresImport(final String fqn) {
-        imports.add(fqn);
+        if (add(fqnTable, ids, names, fqn)) {
+            sortedImports = null;
+        }
     }
 
     @Override
     public final void requiresReference(final String uniqueName) {
-        String resolved = refReg.getReference(uniqueName);
-        if (resolved == null) {
-            resolved = uniqueName;
-        }
-        imports.add(resolved);
+        requiresImport(getReference(uniqueName));
     }
 
     @Override
@@ -66,12 +83,65 @@ public final class SimpleCodeSnippetContext implements CodeSnippetContext {
     }
 
     /**
-     * Returns a set of required import names.
+     * Returns a set of required import names. The names are sorted by their natural (alphabetical) order and no longer returned in the
+     * unspecified order of a hash set.
      * 
-     * @return Fully qualified names to import.
+     * @return Fully qualified names to import in alphabetical order.
      */
     public final Set<String> getImports() {
-        return Collections.unmodifiableSet(imports);
+        if (sortedImports == null) {
+            sortedImports = Collections.unmodifiableSet(toNames(fqnTable, ids, names));
+        }
+        return sortedImports;
+    }
+
+    /**
+     * Adds a name to the imports.
+     * 
+     * @param fqnTable
+     *            Table the IDs belong to or NULL if the names are stored directly.
+     * @param ids
+     *            IDs of the imports if there is a table.
+     * @param names
+     *            Names of the imports if there is no table.
+     * @param fqn
+     *            Name to add.
+     * 
+     * @return TRUE if the name was not already imported.
+     */
+    static boolean add(final FqnTable fqnTable, final BitSet ids, final Set<String> names, final String fqn) {
+        if (fqnTable == null) {
+            return names.add(fqn);
+        }
+        final int id = fqnTable.id(fqn);
+        if (ids.get(id)) {
+            return false;
+        }
+        ids.set(id);
+        return true;
+    }
+
+    /**
+     * Converts the imports into a sorted set of names.
+     * 
+     * @param fqnTable
+     *            Table the IDs belong to or NULL if the names are stored directly.
+     * @param ids
+     *            IDs of the imports if there is a table.
+     * @param names
+     *            Names of the imports if there is no table.
+     * 
+     * @return Sorted names.
+     */
+    static Set<String> toNames(final FqnTable fqnTable, final BitSet ids, final Set<String> names) {
+        if (fqnTable == null) {
+            return new TreeSet<>(names);
+        }
+        final Set<String> sorted = new TreeSet<>();
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            sorted.add(fqnTable.name(id));
+        }
+        return sorted;
     }
 
 }
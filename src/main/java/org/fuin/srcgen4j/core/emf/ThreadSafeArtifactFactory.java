@@ -0,0 +1,34 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.emf;
+
+import org.fuin.srcgen4j.commons.ArtifactFactory;
+
+/**
+ * Marker for artifact factories whose {@link #create(Object, java.util.Map, boolean)} method may be called concurrently by multiple
+ * threads. Implementations must not keep mutable state between calls and only use the context map for thread safe access. The
+ * {@link EMFGenerator} only calls such factories in parallel if the number of threads is configured. In that case a
+ * {@link ConcurrentCodeReferenceRegistry} in the context map is frozen after the preparation run, so references may only be added during
+ * the preparation run.
+ * 
+ * @param <MODEL>
+ *            Type of the model.
+ */
+public interface ThreadSafeArtifactFactory<MODEL> extends ArtifactFactory<MODEL> {
+
+}
@@ -18,9 +18,7 @@
 package org.fuin.srcgen4j.core.velocity;
 
 import java.io.File;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import org.fuin.srcgen4j.commons.ParseException;
 import org.fuin.utils4j.fileprocessor.FileHandler;
@@ -30,7 +28,8 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Collects all model files based on a list of changed files. Changed files may be model or template files. For a changed template file all
- * referencing model files will be added.
+ * referencing model files will be added, including models that use a template which includes the changed one. The references are kept in
+ * a {@link TemplateReferenceIndex} that is built once from a full parse and then updated with every changed file.
  */
 public final class IncrementalFileHandler implements FileHandler {
 
@@ -38,12 +37,12 @@ public final class IncrementalFileHandler implements FileHandler {
 
     private static final Logger LOG = LoggerFactory.getLogger(IncrementalFileHandler.class);
 
-    private final Map<File, List<ParameterizedTemplateModel>> templatesToModelMap;
-
     private final ParameterizedTemplateParser parser;
 
     private ParameterizedTemplateModels templates;
 
+    private TemplateReferenceIndex index;
+
     /**
      * Constructor with parent parser.
      * 
@@ -54,22 +53,51 @@ public final class IncrementalFileHandler implements FileHandler {
         super();
         this.parser = parser;
         this.templates = new ParameterizedTemplateModels();
-        this.templatesToModelMap = new HashMap<File, List<ParameterizedTemplateModel>>();
     }
 
     @Override
     public final FileHandlerResult handleFile(final File file) {
+        return handleFile(file, null);
+    }
+
+    /**
+     * Handles a changed file and reuses the model if the file was already read.
+     * 
+     * @param file
+     *            Changed file.
+     * @param model
+     *            Initialized model read from the changed model file or NULL if the file should be read.
+     * 
+     * @return Always {@link FileHandlerResult#CONTINUE}.
+     */
+    public final FileHandlerResult handleFile(final File file, final ParameterizedTemplateModel model) {
         if (parser.getTemplateFilter().accept(file)) {
             // Changed template file
             final List<ParameterizedTemplateModel> list = findReferencesTo(file);
             logList(file, list);
             templates.addParamTemplates(list);
         } else if (parser.getModelFilter().accept(file)) {
-            // Changed model file
-            LOG.info(MSG_ADDING_MODEL_FILE, file.getName());
-            final ParameterizedTemplateModel pt = ParameterizedTemplateModel.create(file);
-            pt.init(parser.getContext(), parser.getVarMap());
-            templates.addParamTemplate(pt);
+            if (file.exists()) {
+                // Changed model file
+                LOG.info(MSG_ADDING_MODEL_FILE, file.getName());
+                final ParameterizedTemplateModel pt;
+                if (model == null) {
+                    pt = ParameterizedTemplateModel.create(file);
+                    pt.init(parser.getContext(), parser.getVarMap());
+                } else {
+                    pt = model;
+                }
+                templates.addParamTemplate(pt);
+                if (index != null) {
+                    index.put(pt);
+                }
+            } else {
+                // Deleted model file
+                LOG.info("Removing model file: {}", file.getName());
+                if (index != null) {
+                    index.remove(file);
+                }
+            }
         }
         return FileHandlerResult.CONTINUE;
     }
@@ -110,16 +138,19 @@ public final class IncrementalFileHandler implements FileHandler {
     }
 
     private List<ParameterizedTemplateModel> findReferencesTo(final File templateFile) {
-        List<ParameterizedTemplateModel> result = templatesToModelMap.get(templateFile);
-        if (result == null) {
+        if (index == null) {
             try {
-                final ParameterizedTemplateModels pts = parser.parse();
-                result = pts.findReferencesTo(parser.getTemplateDir(), templateFile);
+                final TemplateReferenceIndex newIndex = new TemplateReferenceIndex(parser.getTemplateDir());
+                newIndex.addAll(parser.parse());
+                index = newIndex;
             } catch (final ParseException ex) {
                 LOG.error("Error parsing model for template: " + templateFile, ex);
+                return null;
             }
+        } else {
+            index.updateTemplate(templateFile);
         }
-        return result;
+        return index.findReferencesTo(templateFile);
     }
 
 }
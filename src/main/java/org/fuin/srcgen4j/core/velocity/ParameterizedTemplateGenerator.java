@@ -17,15 +17,29 @@
  */
 package org.fuin.srcgen4j.core.velocity;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
 
 import org.apache.velocity.VelocityContext;
 import org.fuin.srcgen4j.commons.GenerateException;
+import org.fuin.srcgen4j.core.base.GeneratedFile;
+import org.fuin.srcgen4j.core.base.ParallelExecution;
+import org.fuin.srcgen4j.core.base.ParallelExecution.Outcome;
+import org.fuin.srcgen4j.core.base.ParallelExecution.TaskError;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Generates files for a given {@link ParameterizedTemplateModels} model.
+ * Generates files for a given {@link ParameterizedTemplateModels} model. If the configuration defines more than one thread, all target
+ * files are rendered in parallel. The results are always reported in the order of the models and target files.
  */
 public final class ParameterizedTemplateGenerator extends VelocityGenerator<ParameterizedTemplateModels> {
 
@@ -34,6 +48,23 @@ public final class ParameterizedTemplateGenerator extends VelocityGenerator<Para
     /** Unique name of the only artifact type the generator produces. */
     public static final String ARTIFACT_NAME = "file";
 
+    /** Number of target files that are rendered or waiting to be reported per thread. */
+    private static final int TASKS_PER_THREAD = 16;
+
+    private volatile TemplateProfiler profiler;
+
+    @Override
+    protected final Set<String> getTemplateNames() {
+        final Set<String> names = new LinkedHashSet<>();
+        final List<ParameterizedTemplateModel> modelList = getModel().getModelList();
+        if (modelList != null) {
+            for (final ParameterizedTemplateModel model : modelList) {
+                names.add(model.getTemplate());
+            }
+        }
+        return names;
+    }
+
     @Override
     protected final void generateIntern() throws GenerateException {
 
@@ -44,24 +75,114 @@ public final class ParameterizedTemplateGenerator extends VelocityGenerator<Para
             return;
         }
 
-        for (final ParameterizedTemplateModel model : modelList) {
-            generate(model);
+        final ParameterizedTemplateGeneratorConfig config = getConfig();
+        if (config != null && config.isProfile()) {
+            profiler = new TemplateProfiler();
         }
+        try {
+            final int threads = ParallelExecution.effectiveThreads(getSpecificConfig().getThreads());
+            if (threads == 1) {
+                for (final ParameterizedTemplateModel model : modelList) {
+                    generate(model);
+                }
+            } else {
+                generateParallel(modelList, threads);
+            }
+        } finally {
+            if (profiler != null) {
+                reportProfile(config);
+                profiler = null;
+            }
+        }
+
+    }
 
+    private ParameterizedTemplateGeneratorConfig getConfig() {
+        final VelocityGeneratorConfig config = getSpecificConfig();
+        if (config instanceof ParameterizedTemplateGeneratorConfig) {
+            return (ParameterizedTemplateGeneratorConfig) config;
+        }
+        return null;
+    }
+
+    private void reportProfile(final ParameterizedTemplateGeneratorConfig config) {
+        LOG.info("Most expensive templates of generator '{}':{}{}", getGeneratorConfig().getName(), System.lineSeparator(),
+                profiler.toTable(config.getProfileTop()));
+        final File file = config.getProfileFileAsFile();
+        if (file != null) {
+            try {
+                profiler.writeFolded(file);
+                LOG.info("Wrote folded template stacks: {}", file);
+            } catch (final IOException ex) {
+                LOG.warn("Wasn't able to write folded template stacks: " + file, ex);
+            }
+        }
+    }
+
+    @Override
+    protected final TemplateProfiler getProfiler() {
+        return profiler;
+    }
+
+    @Override
+    protected final boolean isProfilingEnabled() {
+        final ParameterizedTemplateGeneratorConfig config = getConfig();
+        return config != null && config.isProfile();
     }
 
     private void generate(final ParameterizedTemplateModel model) throws GenerateException {
-        final List<TargetFile> targetFiles = model.createTargetFileList();
-        if (targetFiles == null || targetFiles.isEmpty()) {
-            LOG.warn("No target files found: {} [templates={}]", model.getTemplate(), model.getFile());
-        } else {
-            for (final TargetFile targetFile : targetFiles) {
-                generate(model, targetFile);
+        try (final Stream<TargetFile> stream = model.streamTargetFiles()) {
+            final Iterator<TargetFile> it = stream.iterator();
+            if (!it.hasNext()) {
+                LOG.warn("No target files found: {} [templates={}]", model.getTemplate(), model.getFile());
+            }
+            while (it.hasNext()) {
+                generate(model, it.next(), true);
+            }
+        }
+    }
+
+    private void generateParallel(final List<ParameterizedTemplateModel> modelList, final int threads) throws GenerateException {
+
+        final boolean failFast = getSpecificConfig().isFailFast();
+        LOG.info("Rendering target files with {} threads (failFast={})", threads, failFast);
+
+        // Target files are taken lazily by the calling thread as producers are not required to be thread safe
+        final Outcome<GeneratedFile> outcome;
+        final ExecutorService executor = ParallelExecution.newExecutor(getGeneratorConfig().getName(), threads);
+        try (final RenderTasks tasks = new RenderTasks(modelList)) {
+            outcome = ParallelExecution.invokeAll(executor, tasks, threads * TASKS_PER_THREAD, failFast, genFile -> {
+                // Report in a deterministic order
+                if (genFile != null) {
+                    genFile.logResult();
+                }
+            });
+        } finally {
+            // Lets cancelled renders that already started finish their file
+            ParallelExecution.shutdown(executor);
+        }
+
+        if (!outcome.getErrors().isEmpty()) {
+            for (final TaskError error : outcome.getErrors()) {
+                LOG.error("Error rendering: " + error.getTask(), error.getCause());
+            }
+            final TaskError first = outcome.getErrors().get(0);
+            final GenerateException ex = new GenerateException("Error rendering " + outcome.getErrors().size() + " of " + outcome.getCount()
+                    + " target file(s) - First was: " + first.getTask(), first.getCause());
+            for (int i = 1; i < outcome.getErrors().size(); i++) {
+                ex.addSuppressed(outcome.getErrors().get(i).getCause());
             }
+            throw ex;
+        }
+        if (outcome.isCancelled()) {
+            throw new GenerateException("Rendering was interrupted");
         }
+        LOG.info("Rendered {} target files", outcome.getCount());
+
     }
 
-    private void generate(final ParameterizedTemplateModel model, final TargetFile targetFile) throws GenerateException {
+    private GeneratedFile generate(final ParameterizedTemplateModel model, final TargetFile targetFile, final boolean log)
+            throws GenerateException {
         // Populate default values
         final VelocityContext context = new VelocityContext();
         if (model.getArguments() == null) {
@@ -83,7 +204,88 @@ public final class ParameterizedTemplateGenerator extends VelocityGenerator<Para
             }
         }
 
-        merge(context, ARTIFACT_NAME, model.getTemplate(), targetFile.getPathAndName());
+        return merge(context, ARTIFACT_NAME, model.getTemplate(), targetFile.getPathAndName(), log);
+    }
+
+    /**
+     * Renders a single target file.
+     */
+    private final class RenderTask implements Callable<GeneratedFile> {
+
+        private final ParameterizedTemplateModel model;
+
+        private final TargetFile targetFile;
+
+        RenderTask(final ParameterizedTemplateModel model, final TargetFile targetFile) {
+            super();
+            this.model = model;
+            this.targetFile = targetFile;
+        }
+
+        @Override
+        public final GeneratedFile call() throws GenerateException {
+            return generate(model, targetFile, false);
+        }
+
+        @Override
+        public final String toString() {
+            return targetFile.getPathAndName() + " [" + model.getTemplate() + "]";
+        }
+
+    }
+
+    /**
+     * Lazily creates the render tasks for all target files of a list of models. Only the target file stream of the current model is open.
+     */
+    private final class RenderTasks implements Iterator<RenderTask>, AutoCloseable {
+
+        private final Iterator<ParameterizedTemplateModel> models;
+
+        private ParameterizedTemplateModel model;
+
+        private Stream<TargetFile> stream;
+
+        private Iterator<TargetFile> targetFiles;
+
+        RenderTasks(final List<ParameterizedTemplateModel> modelList) {
+            super();
+            this.models = modelList.iterator();
+        }
+
+        @Override
+        public final boolean hasNext() {
+            while (targetFiles == null || !targetFiles.hasNext()) {
+                close();
+                if (!models.hasNext()) {
+                    return false;
+                }
+                model = models.next();
+                stream = model.streamTargetFiles();
+                targetFiles = stream.iterator();
+                if (!targetFiles.hasNext()) {
+                    LOG.warn("No target files found: {} [templates={}]", model.getTemplate(), model.getFile());
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public final RenderTask next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return new RenderTask(model, targetFiles.next());
+        }
+
+        @Override
+        public final void close() {
+            if (stream != null) {
+                stream.close();
+                stream = null;
+                targetFiles = null;
+            }
+        }
+
     }
 
 }
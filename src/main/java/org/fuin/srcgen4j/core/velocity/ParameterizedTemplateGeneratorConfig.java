@@ -17,10 +17,18 @@
  */
 package org.fuin.srcgen4j.core.velocity;
 
+import static org.fuin.utils4j.Utils4J.replaceVars;
+
+import java.io.File;
+import java.util.Map;
+
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlRootElement;
 
+import org.fuin.utils4j.Utils4J;
+
 /**
  * Configuration for the parameterized template generator.
  */
@@ -28,4 +36,99 @@ import javax.xml.bind.annotation.XmlRootElement;
 @XmlRootElement(name = "parameterized-template-generator")
 public final class ParameterizedTemplateGeneratorConfig extends VelocityGeneratorConfig {
 
+    /** Default number of templates shown in the profiling result. */
+    public static final int DEFAULT_PROFILE_TOP = 20;
+
+    @XmlAttribute(name = "profile")
+    private Boolean profile;
+
+    @XmlAttribute(name = "profileTop")
+    private Integer profileTop;
+
+    @XmlAttribute(name = "profileFile")
+    private String profileFile;
+
+    /**
+     * Returns the information if the render time of every template is measured.
+     * 
+     * @return TRUE if a table with the most expensive templates is logged after generation, FALSE (default) if nothing is measured.
+     */
+    public final boolean isProfile() {
+        if (profile == null) {
+            return false;
+        }
+        return profile;
+    }
+
+    /**
+     * Sets the information if the render time of every template is measured.
+     * 
+     * @param profile
+     *            TRUE if templates are profiled, FALSE if not or NULL for the default (FALSE).
+     */
+    public final void setProfile(final Boolean profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * Returns the number of templates shown in the profiling result.
+     * 
+     * @return Number of most expensive templates to log - Defaults to {@link #DEFAULT_PROFILE_TOP}.
+     */
+    public final int getProfileTop() {
+        if (profileTop == null) {
+            return DEFAULT_PROFILE_TOP;
+        }
+        return profileTop;
+    }
+
+    /**
+     * Sets the number of templates shown in the profiling result.
+     * 
+     * @param profileTop
+     *            Number of most expensive templates to log or NULL for the default ({@link #DEFAULT_PROFILE_TOP}).
+     */
+    public final void setProfileTop(final Integer profileTop) {
+        this.profileTop = profileTop;
+    }
+
+    /**
+     * Returns the path of the file the profiling result is written to in the folded stack format used by flame graph tools.
+     * 
+     * @return Path or NULL if no file is written.
+     */
+    public final String getProfileFile() {
+        return profileFile;
+    }
+
+    /**
+     * Returns the file the profiling result is written to in the folded stack format used by flame graph tools. Variables are replaced
+     * when the configuration is initialized and the path is resolved like the template path.
+     * 
+     * @return Canonical file or NULL if no file is written.
+     */
+    public final File getProfileFileAsFile() {
+        if (profileFile == null) {
+            return null;
+        }
+        return Utils4J.getCanonicalFile(new File(profileFile));
+    }
+
+    /**
+     * Sets the path of the file the profiling result is written to in the folded stack format used by flame graph tools.
+     * 
+     * @param profileFile
+     *            Path or NULL if no file should be written.
+     */
+    public final void setProfileFile(final String profileFile) {
+        this.profileFile = profileFile;
+    }
+
+    @Override
+    protected final void init(final Map<String, String> vars) {
+        if (profileFile != null) {
+            profileFile = replaceVars(profileFile, vars);
+        }
+    }
+
 }
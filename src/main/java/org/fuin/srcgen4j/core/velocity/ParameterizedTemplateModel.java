@@ -24,10 +24,11 @@ import java.io.Writer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
@@ -39,13 +40,10 @@ import javax.xml.bind.annotation.XmlType;
 
 import org.fuin.objects4j.common.Contract;
 import org.fuin.objects4j.vo.TrimmedNotEmpty;
-import org.fuin.srcgen4j.commons.JaxbHelper;
-import org.fuin.srcgen4j.commons.MarshalObjectException;
 import org.fuin.srcgen4j.commons.SrcGen4JContext;
+import org.fuin.srcgen4j.core.base.JaxbContextCache;
 import org.fuin.srcgen4j.core.base.Producer;
 import org.fuin.utils4j.Utils4J;
-import org.fuin.utils4j.jaxb.JaxbUtils;
-import org.fuin.utils4j.jaxb.UnmarshallerBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -201,7 +199,8 @@ public class ParameterizedTemplateModel implements Serializable, Comparable<Para
     }
 
     /**
-     * Returns the list of target files. Either by using the producer or by simply returning the internal list.
+     * Returns the list of target files. Either by using the producer or by simply returning the internal list. If the producer provides a
+     * fingerprint and a cache file is configured, the cached target files are returned as long as the fingerprint did not change.
      * 
      * @return Target files - Never NULL and has at least one entry.
      */
@@ -212,7 +211,58 @@ public class ParameterizedTemplateModel implements Serializable, Comparable<Para
         }
         final TargetFileListProducer producer = tflProducerConfig.getTargetFileListProducer();
         LOG.info("Using target file list producer: {}", producer.getClass().getName());
-        return producer.createTargetFiles();
+        final Stream<TargetFile> cached = streamCached(producer);
+        if (cached == null) {
+            return producer.createTargetFiles();
+        }
+        try (final Stream<TargetFile> stream = cached) {
+            return stream.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Returns a stream of target files. Either by using the producer or by simply streaming the internal list. Other than
+     * {@link #createTargetFileList()} this never materializes the target files of a producer that supports streaming. The cache file of
+     * a producer is used the same way as for the list.
+     * 
+     * @return Target files - Never NULL, but may be empty. Must be closed by the caller.
+     */
+    public final Stream<TargetFile> streamTargetFiles() {
+        if (tflProducerConfig == null) {
+            if (targetFiles == null) {
+                return Stream.empty();
+            }
+            LOG.info("Using target file list: {} elements", targetFiles.size());
+            return targetFiles.stream();
+        }
+        final TargetFileListProducer producer = tflProducerConfig.getTargetFileListProducer();
+        LOG.info("Using target file stream of producer: {}", producer.getClass().getName());
+        final Stream<TargetFile> cached = streamCached(producer);
+        if (cached == null) {
+            return stream(producer);
+        }
+        return cached;
+    }
+
+    private Stream<TargetFile> streamCached(final TargetFileListProducer producer) {
+        final File cacheFile = tflProducerConfig.getCacheFileAsFile();
+        if (cacheFile == null) {
+            return null;
+        }
+        final String fingerprint = producer.getFingerprint();
+        if (fingerprint == null) {
+            LOG.debug("Producer provides no fingerprint - Ignoring cache file: {}", cacheFile);
+            return null;
+        }
+        return TargetFileListCache.stream(cacheFile, fingerprint, () -> stream(producer));
+    }
+
+    private static Stream<TargetFile> stream(final TargetFileListProducer producer) {
+        final Stream<TargetFile> stream = producer.streamTargetFiles();
+        if (stream == null) {
+            return Stream.empty();
+        }
+        return stream;
     }
 
     /**
@@ -270,9 +320,8 @@ public class ParameterizedTemplateModel implements Serializable, Comparable<Para
      */
     public final void writeToXml(final File file) {
         try {
-            final JaxbHelper helper = new JaxbHelper();
-            helper.write(this, file, createJaxbContext());
-        } catch (final MarshalObjectException ex) {
+            jaxb().marshal(this, file);
+        } catch (final JAXBException ex) {
             throw new RuntimeException(ex);
         }
     }
@@ -284,9 +333,8 @@ public class ParameterizedTemplateModel implements Serializable, Comparable<Para
      */
     public final String toXml() {
         try {
-            final JaxbHelper helper = new JaxbHelper();
-            return helper.write(this, createJaxbContext());
-        } catch (final MarshalObjectException ex) {
+            return jaxb().marshal(this);
+        } catch (final JAXBException ex) {
             throw new RuntimeException(ex);
         }
     }
@@ -299,9 +347,8 @@ public class ParameterizedTemplateModel implements Serializable, Comparable<Para
      */
     public final void writeToXml(final Writer writer) {
         try {
-            final JaxbHelper helper = new JaxbHelper();
-            helper.write(this, writer, createJaxbContext());
-        } catch (final MarshalObjectException ex) {
+            jaxb().marshal(this, writer);
+        } catch (final JAXBException ex) {
             throw new RuntimeException(ex);
         }
     }
@@ -369,9 +416,9 @@ public class ParameterizedTemplateModel implements Serializable, Comparable<Para
         return p1.equals(p2);
     }
 
-    private static JAXBContext createJaxbContext() {
+    private static JaxbContextCache jaxb() {
         try {
-            return JAXBContext.newInstance(ParameterizedTemplateModel.class, TargetFile.class, Argument.class);
+            return JaxbContextCache.get(ParameterizedTemplateModel.class, TargetFile.class, Argument.class);
         } catch (final JAXBException ex) {
             throw new RuntimeException(ex);
         }
@@ -386,8 +433,7 @@ public class ParameterizedTemplateModel implements Serializable, Comparable<Para
      * @return New instance.
      */
     public static ParameterizedTemplateModel create(final Reader reader) {
-        final ParameterizedTemplateModel pc = JaxbUtils.unmarshal(new UnmarshallerBuilder().withContext(createJaxbContext()).build(),
-                reader);
+        final ParameterizedTemplateModel pc = jaxb().unmarshal(reader);
         Contract.requireValid(pc);
         return pc;
     }
@@ -401,7 +447,7 @@ public class ParameterizedTemplateModel implements Serializable, Comparable<Para
      * @return New instance.
      */
     public static ParameterizedTemplateModel create(final File file) {
-        final ParameterizedTemplateModel pc = JaxbUtils.unmarshal(new UnmarshallerBuilder().withContext(createJaxbContext()).build(), file);
+        final ParameterizedTemplateModel pc = jaxb().unmarshal(file);
         pc.setFile(file);
         Contract.requireValid(pc);
         return pc;
@@ -19,8 +19,22 @@ package org.fuin.srcgen4j.core.velocity;
 
 import java.io.File;
 import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.commons.io.filefilter.IOFileFilter;
 import org.apache.commons.io.filefilter.OrFileFilter;
@@ -31,13 +45,17 @@ import org.fuin.srcgen4j.commons.ParseException;
 import org.fuin.srcgen4j.commons.ParserConfig;
 import org.fuin.srcgen4j.commons.SrcGen4JContext;
 import org.fuin.srcgen4j.core.base.AbstractParser;
+import org.fuin.srcgen4j.core.base.ParallelExecution;
+import org.fuin.srcgen4j.core.base.ParallelExecution.Outcome;
+import org.fuin.srcgen4j.core.base.ParallelExecution.TaskError;
+import org.fuin.utils4j.Utils4J;
 import org.fuin.utils4j.fileprocessor.FileProcessor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Parses a given directory for XML files of type {@link ParameterizedTemplateModel} or {@link ParameterizedTemplateModels} and combines all
- * files into one model.
+ * files into one model. The result of the full parse is cached and can be patched with changed model files using {@link #refresh(Set)}.
  */
 public final class ParameterizedTemplateParser extends AbstractParser<ParameterizedTemplateParserConfig>
         implements IncrementalParser<ParameterizedTemplateModels> {
@@ -54,7 +72,11 @@ public final class ParameterizedTemplateParser extends AbstractParser<Parameteri
 
     private IncrementalFileHandler incrementalHandler;
 
-    private FullFileHandler fullHandler;
+    private ParameterizedTemplateModels fullModels;
+
+    private Map<File, ParameterizedTemplateModel> fullModelsByFile;
+
+    private final AtomicLong generation = new AtomicLong();
 
     private IOFileFilter modelFilter;
 
@@ -92,25 +114,181 @@ public final class ParameterizedTemplateParser extends AbstractParser<Parameteri
     @Override
     public final ParameterizedTemplateModels parse() throws ParseException {
         LOG.info("Full parse: {}", name);
-        if (fullHandler == null) {
-            fullHandler = new FullFileHandler(this);
-            final FileProcessor processor = new FileProcessor(fullHandler);
-            processor.process(parserConfig.getModelDir());
-            final ParameterizedTemplateModels models = fullHandler.getTemplates();
+        if (fullModels == null) {
+            final int threads = ParallelExecution.effectiveThreads(parserConfig.getThreads());
+            final ParameterizedTemplateModels models;
+            if (threads == 1) {
+                final FullFileHandler fullHandler = new FullFileHandler(this);
+                final FileProcessor processor = new FileProcessor(fullHandler);
+                processor.process(parserConfig.getModelDir());
+                models = fullHandler.getTemplates();
+                // Same order as the parallel parse
+                if (models.getModelList() != null) {
+                    models.getModelList().sort(Comparator.comparing(ParameterizedTemplateModel::getFile));
+                }
+            } else {
+                models = parseParallel(threads);
+            }
             models.init(context, varMap);
+            fullModelsByFile = new LinkedHashMap<>();
+            if (models.getModelList() != null) {
+                for (final ParameterizedTemplateModel model : models.getModelList()) {
+                    fullModelsByFile.put(Utils4J.getCanonicalFile(model.getFile()), model);
+                }
+            }
+            fullModels = models;
+            generation.incrementAndGet();
+        }
+        return fullModels;
+    }
+
+    /**
+     * Updates the cached result of the full parse with changed, added or deleted model files. Only the given files are read again, the
+     * model directory is not scanned. Models keep their position, new models are appended. If there was no full parse yet, a full parse
+     * is executed.
+     * 
+     * @param files
+     *            Changed files - Files that are not model files inside the model directory are ignored. Cannot be NULL.
+     * 
+     * @return Cached and updated result of the full parse.
+     * 
+     * @throws ParseException
+     *             Error parsing the models.
+     */
+    public final ParameterizedTemplateModels refresh(final Set<File> files) throws ParseException {
+        Contract.requireArgNotNull("files", files);
+        if (fullModels == null) {
+            return parse();
         }
-        return fullHandler.getTemplates();
+        refreshModels(files);
+        return fullModels;
+    }
+
+    /**
+     * Updates the cached result of the full parse, which must exist.
+     * 
+     * @param files
+     *            Changed files.
+     * 
+     * @return Models that were read again by canonical file - Never NULL.
+     */
+    private Map<File, ParameterizedTemplateModel> refreshModels(final Set<File> files) {
+        final Map<File, ParameterizedTemplateModel> refreshed = new HashMap<>();
+        boolean changed = false;
+        for (final File file : files) {
+            final File canonicalFile = Utils4J.getCanonicalFile(file);
+            if (modelFilter.accept(file) && Utils4J.fileInsideDirectory(parserConfig.getModelDir(), canonicalFile)) {
+                if (canonicalFile.exists()) {
+                    LOG.info("Refreshing model file: {}", file.getName());
+                    final ParameterizedTemplateModel pt = ParameterizedTemplateModel.create(file);
+                    pt.init(context, varMap);
+                    fullModelsByFile.put(canonicalFile, pt);
+                    refreshed.put(canonicalFile, pt);
+                    changed = true;
+                } else if (fullModelsByFile.remove(canonicalFile) != null) {
+                    LOG.info("Removing model file: {}", file.getName());
+                    changed = true;
+                }
+            }
+        }
+        if (changed) {
+            fullModels.setParamTemplates(new ArrayList<>(fullModelsByFile.values()));
+            generation.incrementAndGet();
+        }
+        return refreshed;
+    }
+
+    /**
+     * Drops the cached result of the full parse. The next call to {@link #parse()} will scan the model directory again.
+     */
+    public final void invalidate() {
+        LOG.info("Invalidate full parse: {}", name);
+        fullModels = null;
+        fullModelsByFile = null;
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Returns a counter that changes every time the cached result of the full parse is created, updated or dropped. Callers can remember
+     * the value and compare it later to find out cheaply if the models changed.
+     * 
+     * @return Current generation.
+     */
+    public final long getGeneration() {
+        return generation.get();
+    }
+
+    private ParameterizedTemplateModels parseParallel(final int threads) throws ParseException {
+
+        // Sorting the files makes the model order independent of the file system
+        final List<File> files;
+        try (final Stream<Path> paths = Files.walk(parserConfig.getModelDir().toPath())) {
+            files = paths.filter(Files::isRegularFile).map(Path::toFile).filter(modelFilter::accept).sorted()
+                    .collect(Collectors.toList());
+        } catch (final IOException ex) {
+            final ParseException pex = new ParseException("Error scanning model directory: " + parserConfig.getModelDir());
+            pex.initCause(ex);
+            throw pex;
+        }
+
+        final List<Callable<ParameterizedTemplateModel>> tasks = new ArrayList<>(files.size());
+        for (final File file : files) {
+            tasks.add(() -> ParameterizedTemplateModel.create(file));
+        }
+        LOG.info("Reading {} model files with {} threads", files.size(), threads);
+
+        final Outcome<ParameterizedTemplateModel> outcome;
+        final ExecutorService executor = ParallelExecution.newExecutor(name, threads);
+        try {
+            outcome = ParallelExecution.invokeAll(executor, tasks, false);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (!outcome.getErrors().isEmpty()) {
+            for (final TaskError error : outcome.getErrors()) {
+                LOG.error("Error reading model file: " + files.get(error.getIndex()), error.getCause());
+            }
+            final ParseException ex = new ParseException("Error reading " + outcome.getErrors().size() + " of " + files.size()
+                    + " model file(s) - First was: " + files.get(outcome.getErrors().get(0).getIndex()));
+            ex.initCause(outcome.getErrors().get(0).getCause());
+            for (int i = 1; i < outcome.getErrors().size(); i++) {
+                ex.addSuppressed(outcome.getErrors().get(i).getCause());
+            }
+            throw ex;
+        }
+        if (outcome.isCancelled()) {
+            throw new ParseException("Reading model files was interrupted");
+        }
+
+        // Initialization is done sequentially as the context is not required to be thread safe
+        final ParameterizedTemplateModels models = new ParameterizedTemplateModels();
+        for (int i = 0; i < files.size(); i++) {
+            final ParameterizedTemplateModel pt = outcome.getResults().get(i);
+            LOG.info("Adding template file: {}", files.get(i).getName());
+            pt.init(context, varMap);
+            models.addParamTemplate(pt);
+        }
+        return models;
+
     }
 
     @Override
     public final ParameterizedTemplateModels parse(final Set<File> files) throws ParseException {
         LOG.info("Incremental parse");
+        // Models read by the refresh are passed on, so every changed file is only read once
+        final Map<File, ParameterizedTemplateModel> refreshed;
+        if (fullModels == null) {
+            refreshed = Collections.emptyMap();
+        } else {
+            refreshed = refreshModels(files);
+        }
         if (incrementalHandler == null) {
             incrementalHandler = new IncrementalFileHandler(this);
         }
         incrementalHandler.clear();
         for (final File file : files) {
-            incrementalHandler.handleFile(file);
+            incrementalHandler.handleFile(file, refreshed.get(Utils4J.getCanonicalFile(file)));
         }
         final ParameterizedTemplateModels models = incrementalHandler.getTemplates();
         models.init(context, varMap);
@@ -56,6 +56,9 @@ public class ParameterizedTemplateParserConfig extends AbstractElement
     @XmlAttribute(name = "templateFilter")
     private String templateFilter;
 
+    @XmlAttribute(name = "threads")
+    private Integer threads;
+
     @XmlTransient
     private File modelDir;
 
@@ -187,6 +190,25 @@ public class ParameterizedTemplateParserConfig extends AbstractElement
         this.templateFilter = templateFilter;
     }
 
+    /**
+     * Returns the number of threads used for reading the model files during a full parse.
+     * 
+     * @return Number of threads, a value less than 1 for one thread per available processor or NULL for sequential parsing.
+     */
+    public final Integer getThreads() {
+        return threads;
+    }
+
+    /**
+     * Sets the number of threads used for reading the model files during a full parse.
+     * 
+     * @param threads
+     *            Number of threads, a value less than 1 for one thread per available processor or NULL for sequential parsing.
+     */
+    public final void setThreads(final Integer threads) {
+        this.threads = threads;
+    }
+
     @Override
     public final ParameterizedTemplateParserConfig init(final SrcGen4JContext context, final Config<GeneratorConfig> parent,
             final Map<String, String> vars) {
@@ -0,0 +1,80 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.velocity;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.apache.velocity.context.InternalContextAdapter;
+import org.apache.velocity.runtime.directive.Parse;
+import org.apache.velocity.runtime.parser.node.ASTStringLiteral;
+import org.apache.velocity.runtime.parser.node.Node;
+
+/**
+ * Replaces the standard <code>#parse</code> directive to measure included templates as nested frames of the {@link TemplateProfiler}
+ * active in the current thread. Behaves exactly like the standard directive if no profiler is active. The argument is never evaluated for
+ * the frame name, so the frame of a non literal argument is named {@link #DYNAMIC}.
+ */
+public final class ProfilingParse extends Parse {
+
+    /** Frame name used if the template name is not a constant string literal. */
+    public static final String DYNAMIC = "#parse(<dynamic>)";
+
+    @Override
+    public final boolean render(final InternalContextAdapter context, final Writer writer, final Node node) throws IOException {
+        final TemplateProfiler profiler = TemplateProfiler.current();
+        if (profiler == null || node.jjtGetNumChildren() == 0) {
+            return super.render(context, writer, node);
+        }
+        profiler.enter(label(node.jjtGetChild(0)));
+        try {
+            return super.render(context, writer, node);
+        } finally {
+            profiler.exit(-1);
+        }
+    }
+
+    /**
+     * Returns the frame name for the argument of a directive without evaluating it.
+     * 
+     * @param arg
+     *            First argument of the directive.
+     * 
+     * @return Template name of a constant string literal or {@link #DYNAMIC}.
+     */
+    static String label(final Node arg) {
+        if (!(arg instanceof ASTStringLiteral)) {
+            return DYNAMIC;
+        }
+        final String literal = arg.literal();
+        if (literal == null || literal.length() < 2) {
+            return DYNAMIC;
+        }
+        final char quote = literal.charAt(0);
+        if ((quote != '"' && quote != '\'') || literal.charAt(literal.length() - 1) != quote) {
+            return DYNAMIC;
+        }
+        final String text = literal.substring(1, literal.length() - 1);
+        // Double quoted strings are interpolated
+        if (quote == '"' && (text.indexOf('$') >= 0 || text.indexOf('#') >= 0)) {
+            return DYNAMIC;
+        }
+        return text;
+    }
+
+}
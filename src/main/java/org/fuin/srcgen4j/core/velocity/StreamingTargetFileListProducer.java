@@ -0,0 +1,50 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.velocity;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Producer that creates its target files lazily. The generator consumes the stream without materializing the list.
+ */
+public interface StreamingTargetFileListProducer extends TargetFileListProducer {
+
+    /**
+     * Collects the result of {@link #streamTargetFiles()}.
+     * 
+     * @return File list.
+     */
+    @Override
+    public default List<TargetFile> createTargetFiles() {
+        try (final Stream<TargetFile> stream = streamTargetFiles()) {
+            return stream.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Creates a stream of target files. The stream is consumed sequentially by a single thread and closed by the caller, so it may be
+     * backed by an open resource like a file or a database cursor.
+     * 
+     * @return Target file stream - Never NULL.
+     */
+    @Override
+    public Stream<TargetFile> streamTargetFiles();
+
+}
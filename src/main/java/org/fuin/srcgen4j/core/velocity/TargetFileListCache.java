@@ -0,0 +1,321 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.velocity;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.fuin.objects4j.common.Contract;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persists the target files of a {@link TargetFileListProducer} together with the producer's fingerprint. As long as the fingerprint does
+ * not change, the target files are read from the cache file instead of being created again by the producer. The target files are written
+ * and read one by one, so the list is never held in memory. Errors writing the cache are only logged, as a missing cache simply means the
+ * producer is called again. A cache file is read completely before it is used, so a truncated, corrupt or incompatible file is deleted
+ * and replaced by the producer's target files instead of failing in the middle of the generation.
+ */
+public final class TargetFileListCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TargetFileListCache.class);
+
+    /** Version of the cache file format. */
+    private static final int FORMAT_VERSION = 1;
+
+    /** Number of target files after which the stream's back references are cleared. */
+    private static final int RESET_INTERVAL = 1000;
+
+    /** Only the types of a target file are allowed to be deserialized. */
+    private static final ObjectInputFilter FILTER = ObjectInputFilter.Config
+            .createFilter(TargetFile.class.getName() + ";" + Argument.class.getName() + ";java.util.*;java.lang.*;!*");
+
+    private TargetFileListCache() {
+        // Never used
+    }
+
+    /**
+     * Returns the cached target files if the cache file was created with the same fingerprint. Otherwise the target files of the producer
+     * are returned and written to the cache file while they are consumed. The new cache file only replaces the old one if the stream was
+     * consumed completely.
+     * 
+     * @param cacheFile
+     *            File that stores the target files - Cannot be NULL.
+     * @param fingerprint
+     *            Hash of the producer's inputs - Cannot be NULL.
+     * @param producer
+     *            Creates the target files if the cache is missing or outdated - Cannot be NULL.
+     * 
+     * @return Target files - Must be closed by the caller.
+     */
+    public static Stream<TargetFile> stream(final File cacheFile, final String fingerprint, final Supplier<Stream<TargetFile>> producer) {
+        Contract.requireArgNotNull("cacheFile", cacheFile);
+        Contract.requireArgNotNull("fingerprint", fingerprint);
+        Contract.requireArgNotNull("producer", producer);
+
+        final ObjectInputStream in = open(cacheFile, fingerprint);
+        if (in != null) {
+            LOG.info("Using cached target file list: {}", cacheFile);
+            return toStream(new CacheReader(cacheFile, in)).onClose(() -> close(in));
+        }
+
+        final Stream<TargetFile> stream = producer.get();
+        final Recorder recorder = new Recorder(cacheFile, fingerprint, stream.iterator());
+        return toStream(recorder).onClose(() -> {
+            try {
+                stream.close();
+            } finally {
+                recorder.close();
+            }
+        });
+    }
+
+    private static ObjectInputStream open(final File cacheFile, final String fingerprint) {
+        if (!cacheFile.exists()) {
+            LOG.debug("No cached target file list: {}", cacheFile);
+            return null;
+        }
+        ObjectInputStream in = null;
+        try {
+            in = openHeader(cacheFile, fingerprint);
+            if (in == null) {
+                LOG.info("Cached target file list is outdated: {}", cacheFile);
+                return null;
+            }
+            validate(in);
+            in.close();
+            in = null;
+            return openHeader(cacheFile, fingerprint);
+        } catch (final IOException | ClassNotFoundException | RuntimeException ex) {
+            // Corrupt streams may also fail with unchecked exceptions
+            close(in);
+            LOG.warn("Deleting unreadable target file list cache: " + cacheFile, ex);
+            try {
+                Files.deleteIfExists(cacheFile.toPath());
+            } catch (final IOException ex2) {
+                LOG.warn("Wasn't able to delete: " + cacheFile, ex2);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Opens the cache file and reads the header.
+     * 
+     * @return Stream positioned at the first target file or NULL if the format version or the fingerprint doesn't match.
+     */
+    private static ObjectInputStream openHeader(final File cacheFile, final String fingerprint) throws IOException {
+        final ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(cacheFile.toPath())));
+        try {
+            in.setObjectInputFilter(FILTER);
+            if (in.readInt() == FORMAT_VERSION && fingerprint.equals(in.readUTF())) {
+                return in;
+            }
+        } catch (final IOException | RuntimeException ex) {
+            close(in);
+            throw ex;
+        }
+        close(in);
+        return null;
+    }
+
+    /**
+     * Reads all target files up to the end marker without keeping them.
+     */
+    private static void validate(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        Object obj;
+        while ((obj = in.readObject()) != null) {
+            if (!(obj instanceof TargetFile)) {
+                throw new InvalidObjectException("Unexpected entry: " + obj.getClass().getName());
+            }
+        }
+    }
+
+    private static void close(final AutoCloseable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (final Exception ex) {
+                LOG.warn("Wasn't able to close target file list cache", ex);
+            }
+        }
+    }
+
+    private static Stream<TargetFile> toStream(final Iterator<TargetFile> iterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Reads target files from the cache file until the end marker is found. The file was already validated, so errors only occur if it
+     * was changed in the meantime.
+     */
+    private static final class CacheReader implements Iterator<TargetFile> {
+
+        private final File cacheFile;
+
+        private final ObjectInputStream in;
+
+        private TargetFile next;
+
+        private boolean eof;
+
+        CacheReader(final File cacheFile, final ObjectInputStream in) {
+            super();
+            this.cacheFile = cacheFile;
+            this.in = in;
+        }
+
+        @Override
+        public final boolean hasNext() {
+            if (next == null && !eof) {
+                try {
+                    next = (TargetFile) in.readObject();
+                } catch (final IOException | ClassNotFoundException ex) {
+                    throw new IllegalStateException("Error reading target file list cache: " + cacheFile, ex);
+                }
+                eof = (next == null);
+            }
+            return !eof;
+        }
+
+        @Override
+        public final TargetFile next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final TargetFile targetFile = next;
+            next = null;
+            return targetFile;
+        }
+
+    }
+
+    /**
+     * Passes the target files of the producer through and writes them into a temporary file. The temporary file replaces the cache file
+     * only if all target files were consumed.
+     */
+    private static final class Recorder implements Iterator<TargetFile>, AutoCloseable {
+
+        private final File cacheFile;
+
+        private final File tmpFile;
+
+        private final Iterator<TargetFile> delegate;
+
+        private ObjectOutputStream out;
+
+        private int count;
+
+        private boolean complete;
+
+        Recorder(final File cacheFile, final String fingerprint, final Iterator<TargetFile> delegate) {
+            super();
+            this.cacheFile = cacheFile;
+            this.tmpFile = new File(cacheFile + ".tmp");
+            this.delegate = delegate;
+            try {
+                final File dir = cacheFile.getAbsoluteFile().getParentFile();
+                if (dir != null) {
+                    Files.createDirectories(dir.toPath());
+                }
+                out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile.toPath())));
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(fingerprint);
+            } catch (final IOException ex) {
+                failed(ex);
+            }
+        }
+
+        @Override
+        public final boolean hasNext() {
+            final boolean hasNext = delegate.hasNext();
+            if (!hasNext) {
+                complete = true;
+            }
+            return hasNext;
+        }
+
+        @Override
+        public final TargetFile next() {
+            final TargetFile targetFile = delegate.next();
+            if (out != null) {
+                try {
+                    out.writeObject(targetFile);
+                    count++;
+                    if (count % RESET_INTERVAL == 0) {
+                        out.reset();
+                    }
+                } catch (final IOException ex) {
+                    failed(ex);
+                }
+            }
+            return targetFile;
+        }
+
+        @Override
+        public final void close() {
+            if (out == null) {
+                return;
+            }
+            try {
+                if (complete) {
+                    out.writeObject(null);
+                }
+                out.close();
+                out = null;
+                if (complete) {
+                    Files.move(tmpFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                    LOG.info("Cached target file list with {} elements: {}", count, cacheFile);
+                } else {
+                    Files.deleteIfExists(tmpFile.toPath());
+                    LOG.debug("Target file list was not consumed completely - Not cached: {}", cacheFile);
+                }
+            } catch (final IOException ex) {
+                failed(ex);
+            }
+        }
+
+        private void failed(final IOException ex) {
+            LOG.warn("Wasn't able to write target file list cache: " + cacheFile, ex);
+            TargetFileListCache.close(out);
+            out = null;
+            try {
+                Files.deleteIfExists(tmpFile.toPath());
+            } catch (final IOException ex2) {
+                LOG.warn("Wasn't able to delete: " + tmpFile, ex2);
+            }
+        }
+
+    }
+
+}
@@ -18,9 +18,11 @@
 package org.fuin.srcgen4j.core.velocity;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
- * Generates a list of target files.
+ * Generates a list of target files. Producers that create a huge number of target files should implement
+ * {@link StreamingTargetFileListProducer} instead, so the target files are created lazily while the generator consumes them.
  */
 public interface TargetFileListProducer {
 
@@ -31,4 +33,30 @@ public interface TargetFileListProducer {
      */
     public List<TargetFile> createTargetFiles();
 
+    /**
+     * Creates a stream of target files. The stream is consumed sequentially by a single thread and closed by the caller, so it may be
+     * backed by an open resource like a file or a database cursor. The default implementation streams the result of
+     * {@link #createTargetFiles()}.
+     * 
+     * @return Target file stream - Never NULL.
+     */
+    public default Stream<TargetFile> streamTargetFiles() {
+        final List<TargetFile> targetFiles = createTargetFiles();
+        if (targetFiles == null) {
+            return Stream.empty();
+        }
+        return targetFiles.stream();
+    }
+
+    /**
+     * Returns a fingerprint of all inputs the target files are created from, for example a hash of the files a producer reads. If a cache
+     * file is configured for the producer, the target files are only created again if the fingerprint changed since the last run.
+     * Implementations should include a version of their own logic in the fingerprint. The default implementation returns NULL.
+     * 
+     * @return Fingerprint or NULL if the target files are always created again.
+     */
+    public default String getFingerprint() {
+        return null;
+    }
+
 }
@@ -19,6 +19,7 @@ package org.fuin.srcgen4j.core.velocity;
 
 import static org.fuin.utils4j.Utils4J.replaceVars;
 
+import java.io.File;
 import java.util.Map;
 
 import javax.validation.Valid;
@@ -41,7 +42,7 @@ import org.fuin.utils4j.Utils4J;
  */
 @XmlAccessorType(XmlAccessType.FIELD)
 @XmlRootElement(name = "target-file-list-producer")
-@XmlType(propOrder = { "config", "className" })
+@XmlType(propOrder = { "config", "className", "cacheFile" })
 public class TargetFileListProducerConfig extends AbstractElement
         implements InitializableElement<TargetFileListProducerConfig, ParameterizedTemplateModel> {
 
@@ -49,6 +50,9 @@ public class TargetFileListProducerConfig extends AbstractElement
     @XmlAttribute(name = "class")
     private String className;
 
+    @XmlAttribute(name = "cacheFile")
+    private String cacheFile;
+
     @Valid
     @XmlAnyElement(lax = true)
     private Object config;
@@ -85,6 +89,42 @@ public class TargetFileListProducerConfig extends AbstractElement
         this.className = className;
     }
 
+    /**
+     * Returns the path of the file that caches the target files of a producer that provides a fingerprint.
+     * 
+     * @return Path or NULL if the target files are not cached.
+     */
+    public final String getCacheFile() {
+        return cacheFile;
+    }
+
+    /**
+     * Returns the file that caches the target files of a producer that provides a fingerprint. A relative path is resolved against the
+     * directory of the parent's model file.
+     * 
+     * @return Canonical file or NULL if the target files are not cached.
+     */
+    public final File getCacheFileAsFile() {
+        if (cacheFile == null) {
+            return null;
+        }
+        final File file = new File(cacheFile);
+        if (file.isAbsolute() || parent == null || parent.getFile() == null) {
+            return Utils4J.getCanonicalFile(file);
+        }
+        return Utils4J.getCanonicalFile(new File(parent.getFile().getAbsoluteFile().getParentFile(), cacheFile));
+    }
+
+    /**
+     * Sets the path of the file that caches the target files of a producer that provides a fingerprint.
+     * 
+     * @param cacheFile
+     *            Path or NULL if the target files should not be cached.
+     */
+    public final void setCacheFile(final String cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
     /**
      * Returns the specific configuration for the target file list producer.
      * 
@@ -130,6 +170,9 @@ public class TargetFileListProducerConfig extends AbstractElement
         setParent(parent);
         inheritVariables(vars);
         setClassName(replaceVars(getClassName(), getVarMap()));
+        if (cacheFile != null) {
+            setCacheFile(replaceVars(cacheFile, getVarMap()));
+        }
         if (config instanceof InitializableElement) {
             final InitializableElement<?, TargetFileListProducerConfig> ie;
             ie = (InitializableElement<?, TargetFileListProducerConfig>) config;
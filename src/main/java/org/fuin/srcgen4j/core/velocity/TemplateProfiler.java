@@ -0,0 +1,234 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.velocity;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.fuin.objects4j.common.Contract;
+
+/**
+ * Measures render count, total and maximum render time and output size for every template. Templates included with
+ * <code>#parse</code> are measured as nested frames (See {@link ProfilingParse}), so the self time of every template and the complete
+ * call stacks are available. Macros can't be measured, as velocity provides no hook for them. Instances are thread safe.
+ */
+public final class TemplateProfiler {
+
+    private static final ThreadLocal<Deque<Frame>> STACK = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private static final ThreadLocal<TemplateProfiler> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Stats> stats;
+
+    private final Map<String, LongAdder> folded;
+
+    /**
+     * Default constructor.
+     */
+    public TemplateProfiler() {
+        super();
+        stats = new ConcurrentHashMap<>();
+        folded = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the profiler that is rendering a template in the current thread.
+     * 
+     * @return Profiler or NULL if no profiled template is rendered.
+     */
+    static TemplateProfiler current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Starts measuring a template in the current thread. Every call must be followed by a call to {@link #exit(long)} in the same thread.
+     * 
+     * @param template
+     *            Name of the template - Cannot be NULL.
+     */
+    public final void enter(final String template) {
+        Contract.requireArgNotNull("template", template);
+        final Deque<Frame> stack = STACK.get();
+        final Frame parent = stack.peek();
+        final String path;
+        if (parent == null) {
+            CURRENT.set(this);
+            path = template;
+        } else {
+            path = parent.path + ";" + template;
+        }
+        stack.push(new Frame(template, path, System.nanoTime()));
+    }
+
+    /**
+     * Stops measuring the template most recently entered in the current thread.
+     * 
+     * @param bytes
+     *            Size of the rendered output or a negative value if it is unknown (Nested templates).
+     */
+    public final void exit(final long bytes) {
+        final Deque<Frame> stack = STACK.get();
+        final Frame frame = stack.pop();
+        final long nanos = System.nanoTime() - frame.start;
+        final Frame parent = stack.peek();
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            parent.childNanos += nanos;
+        }
+        stats.computeIfAbsent(frame.template, key -> new Stats()).add(nanos, nanos - frame.childNanos, bytes);
+        folded.computeIfAbsent(frame.path, key -> new LongAdder()).add(nanos - frame.childNanos);
+    }
+
+    /**
+     * Returns a table with the most expensive templates sorted by their total render time.
+     * 
+     * @param top
+     *            Maximum number of templates to include.
+     * 
+     * @return Table with one line per template.
+     */
+    public final String toTable(final int top) {
+        final List<Map.Entry<String, Stats>> entries = new ArrayList<>();
+        for (final Map.Entry<String, Stats> entry : stats.entrySet()) {
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue().copy()));
+        }
+        entries.sort((a, b) -> Long.compare(b.getValue().totalNanos, a.getValue().totalNanos));
+
+        final StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%10s %12s %12s %12s %12s %14s  %s%n", "Count", "Total ms", "Self ms", "Max ms", "Avg ms",
+                "Bytes", "Template"));
+        for (int i = 0; i < Math.min(top, entries.size()); i++) {
+            final String name = entries.get(i).getKey();
+            final Stats s = entries.get(i).getValue();
+            sb.append(String.format(Locale.ROOT, "%10d %12.3f %12.3f %12.3f %12.3f %14s  %s%n", s.count, millis(s.totalNanos),
+                    millis(s.selfNanos), millis(s.maxNanos), millis(s.totalNanos) / s.count, s.bytes < 0 ? "-" : String.valueOf(s.bytes),
+                    name));
+        }
+        if (entries.size() > top) {
+            sb.append(String.format(Locale.ROOT, "... %d more template(s)%n", entries.size() - top));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes the self time of every call stack in the folded stack format used by flame graph tools (For example
+     * <code>flamegraph.pl</code>). Every line contains the template names of a stack separated by a semicolon and the self time in
+     * microseconds.
+     * 
+     * @param file
+     *            File to create or replace - Cannot be NULL.
+     * 
+     * @throws IOException
+     *             Error writing the file.
+     */
+    public final void writeFolded(final File file) throws IOException {
+        Contract.requireArgNotNull("file", file);
+        final File dir = file.getAbsoluteFile().getParentFile();
+        if (dir != null) {
+            Files.createDirectories(dir.toPath());
+        }
+        try (final Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            for (final Map.Entry<String, LongAdder> entry : new TreeMap<>(folded).entrySet()) {
+                writer.write(entry.getKey().replace(' ', '_'));
+                writer.write(' ');
+                writer.write(String.valueOf(entry.getValue().sum() / 1000));
+                writer.write('\n');
+            }
+        }
+    }
+
+    private static double millis(final long nanos) {
+        return nanos / 1000000.0;
+    }
+
+    /**
+     * Template currently rendered in a thread.
+     */
+    private static final class Frame {
+
+        private final String template;
+
+        private final String path;
+
+        private final long start;
+
+        private long childNanos;
+
+        Frame(final String template, final String path, final long start) {
+            super();
+            this.template = template;
+            this.path = path;
+            this.start = start;
+        }
+
+    }
+
+    /**
+     * Sums up the measurements of a single template.
+     */
+    private static final class Stats {
+
+        private long count;
+
+        private long totalNanos;
+
+        private long selfNanos;
+
+        private long maxNanos;
+
+        private long bytes;
+
+        synchronized void add(final long nanos, final long self, final long size) {
+            count++;
+            totalNanos += nanos;
+            selfNanos += self;
+            maxNanos = Math.max(maxNanos, nanos);
+            if (size < 0 || bytes < 0) {
+                bytes = -1;
+            } else {
+                bytes += size;
+            }
+        }
+
+        synchronized Stats copy() {
+            final Stats copy = new Stats();
+            copy.count = count;
+            copy.totalNanos = totalNanos;
+            copy.selfNanos = selfNanos;
+            copy.maxNanos = maxNanos;
+            copy.bytes = bytes;
+            return copy;
+        }
+
+    }
+
+}
@@ -0,0 +1,237 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.velocity;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.fuin.objects4j.common.Contract;
+import org.fuin.utils4j.Utils4J;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reverse index from a template file to all models that depend on it. A model depends on the template it references directly and on all
+ * templates that are pulled in by that template using <code>#parse</code> or <code>#include</code> with a string literal. Dynamic template
+ * names (for example <code>#parse($name)</code>) cannot be detected. All files are stored as canonical files. This class is not thread
+ * safe.
+ */
+public final class TemplateReferenceIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TemplateReferenceIndex.class);
+
+    private static final Pattern DIRECTIVE = Pattern.compile("#\\{?(?:parse|include)\\}?\\s*\\(([^)]*)\\)");
+
+    private static final Pattern LITERAL = Pattern.compile("\"([^\"]+)\"|'([^']+)'");
+
+    private final File templateDir;
+
+    private final Map<File, ParameterizedTemplateModel> modelsByFile;
+
+    private final Map<File, File> modelToTemplate;
+
+    private final Map<File, Set<File>> templateToModels;
+
+    private final Map<File, Set<File>> includes;
+
+    private final Map<File, Set<File>> includedBy;
+
+    /**
+     * Constructor with template directory.
+     * 
+     * @param templateDir
+     *            Directory where all template files are located - Cannot be NULL.
+     */
+    public TemplateReferenceIndex(final File templateDir) {
+        super();
+        Contract.requireArgNotNull("templateDir", templateDir);
+        this.templateDir = Utils4J.getCanonicalFile(templateDir);
+        this.modelsByFile = new HashMap<>();
+        this.modelToTemplate = new HashMap<>();
+        this.templateToModels = new HashMap<>();
+        this.includes = new HashMap<>();
+        this.includedBy = new HashMap<>();
+    }
+
+    /**
+     * Adds all models that have a file.
+     * 
+     * @param models
+     *            Models to add - Cannot be NULL.
+     */
+    public final void addAll(final ParameterizedTemplateModels models) {
+        Contract.requireArgNotNull("models", models);
+        if (models.getModelList() != null) {
+            for (final ParameterizedTemplateModel model : models.getModelList()) {
+                put(model);
+            }
+        }
+    }
+
+    /**
+     * Adds a model or replaces the model previously read from the same file.
+     * 
+     * @param model
+     *            Model to add - Cannot be NULL.
+     */
+    public final void put(final ParameterizedTemplateModel model) {
+        Contract.requireArgNotNull("model", model);
+        if (model.getFile() == null || model.getTemplate() == null) {
+            LOG.debug("Model without file or template is not indexed: {}", model);
+            return;
+        }
+        final File modelFile = Utils4J.getCanonicalFile(model.getFile());
+        remove(modelFile);
+        final File templateFile = Utils4J.getCanonicalFile(new File(templateDir, model.getTemplate()));
+        modelsByFile.put(modelFile, model);
+        modelToTemplate.put(modelFile, templateFile);
+        templateToModels.computeIfAbsent(templateFile, k -> new HashSet<>()).add(modelFile);
+        scanIfUnknown(templateFile);
+    }
+
+    /**
+     * Removes the model read from a given file.
+     * 
+     * @param modelFile
+     *            Model file - Cannot be NULL.
+     */
+    public final void remove(final File modelFile) {
+        Contract.requireArgNotNull("modelFile", modelFile);
+        final File file = Utils4J.getCanonicalFile(modelFile);
+        modelsByFile.remove(file);
+        final File templateFile = modelToTemplate.remove(file);
+        if (templateFile != null) {
+            final Set<File> models = templateToModels.get(templateFile);
+            if (models != null) {
+                models.remove(file);
+                if (models.isEmpty()) {
+                    templateToModels.remove(templateFile);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a changed template again and updates the templates it includes.
+     * 
+     * @param templateFile
+     *            Changed template file - Cannot be NULL.
+     */
+    public final void updateTemplate(final File templateFile) {
+        Contract.requireArgNotNull("templateFile", templateFile);
+        scan(Utils4J.getCanonicalFile(templateFile));
+    }
+
+    /**
+     * Returns all models that directly or indirectly depend on a template.
+     * 
+     * @param templateFile
+     *            Template file - Cannot be NULL.
+     * 
+     * @return Models ordered by model file - Never NULL, but may be empty.
+     */
+    public final List<ParameterizedTemplateModel> findReferencesTo(final File templateFile) {
+        Contract.requireArgNotNull("templateFile", templateFile);
+
+        // Collect the template and all templates including it
+        final Set<File> templates = new HashSet<>();
+        final Deque<File> todo = new ArrayDeque<>();
+        todo.add(Utils4J.getCanonicalFile(templateFile));
+        while (!todo.isEmpty()) {
+            final File current = todo.poll();
+            if (templates.add(current)) {
+                todo.addAll(includedBy.getOrDefault(current, Collections.emptySet()));
+            }
+        }
+
+        final List<File> modelFiles = new ArrayList<>();
+        for (final File template : templates) {
+            modelFiles.addAll(templateToModels.getOrDefault(template, Collections.emptySet()));
+        }
+        Collections.sort(modelFiles);
+        final List<ParameterizedTemplateModel> result = new ArrayList<>(modelFiles.size());
+        for (final File modelFile : modelFiles) {
+            result.add(modelsByFile.get(modelFile));
+        }
+        return result;
+    }
+
+    private void scanIfUnknown(final File templateFile) {
+        if (!includes.containsKey(templateFile)) {
+            scan(templateFile);
+        }
+    }
+
+    private void scan(final File templateFile) {
+
+        // Remove old edges
+        final Set<File> oldIncludes = includes.remove(templateFile);
+        if (oldIncludes != null) {
+            for (final File included : oldIncludes) {
+                final Set<File> parents = includedBy.get(included);
+                if (parents != null) {
+                    parents.remove(templateFile);
+                }
+            }
+        }
+
+        final Set<File> newIncludes = readIncludes(templateFile);
+        includes.put(templateFile, newIncludes);
+        for (final File included : newIncludes) {
+            includedBy.computeIfAbsent(included, k -> new HashSet<>()).add(templateFile);
+            scanIfUnknown(included);
+        }
+
+    }
+
+    private Set<File> readIncludes(final File templateFile) {
+        final Set<File> result = new LinkedHashSet<>();
+        if (!templateFile.isFile()) {
+            return result;
+        }
+        try {
+            final String content = new String(Files.readAllBytes(templateFile.toPath()), StandardCharsets.UTF_8);
+            final Matcher directive = DIRECTIVE.matcher(content);
+            while (directive.find()) {
+                final Matcher literal = LITERAL.matcher(directive.group(1));
+                while (literal.find()) {
+                    final String name = literal.group(1) == null ? literal.group(2) : literal.group(1);
+                    result.add(Utils4J.getCanonicalFile(new File(templateDir, name)));
+                }
+            }
+        } catch (final IOException ex) {
+            LOG.warn("Wasn't able to read template for dependencies: " + templateFile, ex);
+        }
+        return result;
+    }
+
+}
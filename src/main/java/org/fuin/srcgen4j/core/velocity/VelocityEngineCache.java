@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.velocity;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader;
+import org.apache.velocity.runtime.resource.loader.FileResourceLoader;
+import org.fuin.utils4j.Utils4J;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps one long-lived velocity engine per template directory. The engines have the resource cache enabled, so parsed templates survive
+ * multiple generation runs. Changed template files are detected by velocity using the configured modification check interval and only
+ * those are parsed again. Engines used for profiling are kept separately, as only those replace the <code>#parse</code> directive. This class
+ * is thread safe.
+ */
+public final class VelocityEngineCache {
+
+    /** Default number of seconds between checks for modified templates. */
+    public static final int DEFAULT_MODIFICATION_CHECK_INTERVAL = 2;
+
+    private static final Logger LOG = LoggerFactory.getLogger(VelocityEngineCache.class);
+
+    private static final String CLASSPATH_KEY = "classpath:";
+
+    private static final Map<String, VelocityEngine> ENGINES = new ConcurrentHashMap<>();
+
+    private VelocityEngineCache() {
+        // Never used
+    }
+
+    /**
+     * Returns the engine for a template directory and creates it if it does not exist yet.
+     * 
+     * @param templateDir
+     *            Template directory or NULL to load templates only from the classpath.
+     * @param modificationCheckInterval
+     *            Seconds between checks for modified templates - A value less than 1 disables the check.
+     * 
+     * @return Initialized engine - Never NULL.
+     */
+    public static VelocityEngine get(final File templateDir, final int modificationCheckInterval) {
+        return get(templateDir, modificationCheckInterval, false);
+    }
+
+    /**
+     * Returns the engine for a template directory and creates it if it does not exist yet.
+     * 
+     * @param templateDir
+     *            Template directory or NULL to load templates only from the classpath.
+     * @param modificationCheckInterval
+     *            Seconds between checks for modified templates - A value less than 1 disables the check.
+     * @param profiling
+     *            TRUE if included templates should be measured by the {@link TemplateProfiler} using {@link ProfilingParse}, FALSE if the
+     *            standard <code>#parse</code> directive is used.
+     * 
+     * @return Initialized engine - Never NULL.
+     */
+    public static VelocityEngine get(final File templateDir, final int modificationCheckInterval, final boolean profiling) {
+        final String key = key(templateDir) + "|" + modificationCheckInterval + "|" + profiling;
+        return ENGINES.computeIfAbsent(key, k -> create(templateDir, modificationCheckInterval, profiling));
+    }
+
+    /**
+     * Drops all engines for a template directory. The next call to {@link #get(File, int)} creates a new engine and all templates will be
+     * parsed again.
+     * 
+     * @param templateDir
+     *            Template directory or NULL for the classpath only engines.
+     */
+    public static void invalidate(final File templateDir) {
+        final String prefix = key(templateDir) + "|";
+        if (ENGINES.keySet().removeIf(key -> key.startsWith(prefix))) {
+            LOG.debug("Invalidated velocity engine: {}", templateDir);
+        }
+    }
+
+    /**
+     * Drops all engines.
+     */
+    public static void invalidateAll() {
+        ENGINES.clear();
+        LOG.debug("Invalidated all velocity engines");
+    }
+
+    private static String key(final File templateDir) {
+        if (templateDir == null) {
+            return CLASSPATH_KEY;
+        }
+        return Utils4J.getCanonicalPath(templateDir);
+    }
+
+    private static VelocityEngine create(final File templateDir, final int modificationCheckInterval, final boolean profiling) {
+        LOG.debug("Create velocity engine: {} [modificationCheckInterval={}, profiling={}]", templateDir, modificationCheckInterval,
+                profiling);
+        final VelocityEngine ve = new VelocityEngine();
+        if (templateDir == null) {
+            ve.addProperty("resource.loader", "class");
+        } else {
+            ve.addProperty("resource.loader", "file, class");
+            ve.addProperty("file.resource.loader.class", FileResourceLoader.class.getName());
+            ve.addProperty("file.resource.loader.path", templateDir.toString());
+            ve.addProperty("file.resource.loader.cache", "true");
+            ve.addProperty("file.resource.loader.modificationCheckInterval", String.valueOf(Math.max(0, modificationCheckInterval)));
+        }
+        ve.addProperty("class.resource.loader.class", ClasspathResourceLoader.class.getName());
+        ve.addProperty("class.resource.loader.cache", "true");
+        if (profiling) {
+            ve.addProperty("runtime.custom_directives", ProfilingParse.class.getName());
+        }
+        ve.init();
+        return ve;
+    }
+
+}
@@ -18,18 +18,30 @@
 package org.fuin.srcgen4j.core.velocity;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
-import org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader;
-import org.apache.velocity.runtime.resource.loader.FileResourceLoader;
 import org.fuin.srcgen4j.commons.GenerateException;
 import org.fuin.srcgen4j.core.base.AbstractGenerator;
 import org.fuin.srcgen4j.core.base.GeneratedFile;
+import org.fuin.srcgen4j.core.base.Metrics;
+import org.fuin.srcgen4j.core.base.MetricsListener;
+import org.fuin.srcgen4j.core.base.ParallelExecution;
+import org.fuin.srcgen4j.core.base.ParallelExecution.Outcome;
+import org.fuin.srcgen4j.core.base.ParallelExecution.TaskError;
+import org.fuin.srcgen4j.core.base.RenderBuffer;
 import org.fuin.utils4j.Utils4J;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -51,6 +63,8 @@ public abstract class VelocityGenerator<MODEL> extends AbstractGenerator<MODEL,
 
     private File templateDir;
 
+    private Map<String, Template> templates = Collections.emptyMap();
+
     /**
      * Returns an initialized velocity engine.
      * 
@@ -69,20 +83,6 @@ public abstract class VelocityGenerator<MODEL> extends AbstractGenerator<MODEL,
         return templateDir;
     }
 
-    private static VelocityEngine createVelocityEngine(final File templateDir) {
-        final VelocityEngine ve = new VelocityEngine();
-        if (templateDir == null) {
-            ve.addProperty("resource.loader", "class");
-        } else {
-            ve.addProperty("resource.loader", "file, class");
-            ve.addProperty("file.resource.loader.class", FileResourceLoader.class.getName());
-            ve.addProperty("file.resource.loader.path", templateDir.toString());
-        }
-        ve.addProperty("class.resource.loader.class", ClasspathResourceLoader.class.getName());
-        ve.init();
-        return ve;
-    }
-
     /**
      * Merges the template and context into a file. If the directory of the file does not exists, the full directory path to it will be
      * created.
@@ -101,25 +101,225 @@ public abstract class VelocityGenerator<MODEL> extends AbstractGenerator<MODEL,
      */
     protected final void merge(final VelocityContext context, final String artifactName, final String templateName, final String filename)
             throws GenerateException {
+        merge(context, artifactName, templateName, filename, true);
+    }
+
+    /**
+     * Merges the template and context into a file. This method may be called concurrently from multiple threads as long as every thread
+     * uses it's own context. If logging is deferred, the caller is responsible for calling {@link GeneratedFile#logResult()} on the
+     * returned file.
+     * 
+     * @param context
+     *            Context to use.
+     * @param artifactName
+     *            Unique name of the generated artifact.
+     * @param templateName
+     *            Name of the template to use.
+     * @param filename
+     *            Filename relative to the target directory.
+     * @param log
+     *            TRUE if the result should be logged immediately, else FALSE.
+     * 
+     * @return Persisted file or NULL if the file was skipped.
+     * 
+     * @throws GenerateException
+     *             Error merging the template
+     */
+    protected final GeneratedFile merge(final VelocityContext context, final String artifactName, final String templateName,
+            final String filename, final boolean log) throws GenerateException {
 
         final GeneratedFile genFile = getTargetFile(artifactName, filename, templateName);
         if (genFile.isSkip()) {
             LOG.debug("Omitted already existing file: {} [{}]", genFile, templateName);
-        } else {
-            LOG.debug("Start merging velocity template: {} [{}]", genFile, templateName);
-            // Merge content
-            try {
-                try (final Writer writer = new FileWriter(genFile.getTmpFile())) {
-                    final Template template = ve.getTemplate(templateName);
-                    template.merge(context, writer);
+            return null;
+        }
+        LOG.debug("Start merging velocity template: {} [{}]", genFile, templateName);
+        // Merge content
+        try {
+            if (isInMemoryEnabled()) {
+                final RenderBuffer buffer = RenderBuffer.get();
+                render(context, templateName, () -> new OutputStreamWriter(buffer), () -> buffer.size());
+                genFile.persist(buffer.getBuffer(), buffer.size(), log);
+            } else {
+                try {
+                    render(context, templateName, () -> new OutputStreamWriter(genFile.createTmpOutputStream()),
+                            () -> genFile.getTmpFile().length());
+                    genFile.persist(log);
+                } catch (final IOException | RuntimeException ex) {
+                    // Don't leave a half-written temporary file behind
+                    final File tmpFile = genFile.getTmpFile();
+                    if (tmpFile.exists() && !tmpFile.delete()) {
+                        LOG.warn("Wasn't able to delete: {}", tmpFile);
+                    }
+                    throw ex;
                 }
-                genFile.persist();
+            }
+        } catch (final IOException ex) {
+            throw new GenerateException("Error merging template '" + templateName + "' to '" + filename + "'!", ex);
+        }
+        return genFile;
+
+    }
+
+    /**
+     * Merges a template into a writer and reports the result to the profiler and metrics listener if they are active.
+     * 
+     * @param context
+     *            Context to use.
+     * @param templateName
+     *            Name of the template to use.
+     * @param output
+     *            Creates the writer to merge into - The writer is closed after merging.
+     * @param size
+     *            Returns the number of bytes written after the writer was closed.
+     * 
+     * @throws IOException
+     *             Error writing the content.
+     */
+    private void render(final VelocityContext context, final String templateName, final Output output, final Size size)
+            throws IOException {
+        final MetricsListener metrics = Metrics.getListener();
+        final TemplateProfiler profiler = getProfiler();
+        final long start = System.nanoTime();
+        final Template template = getTemplate(templateName);
+        long bytes = -1;
+        if (profiler != null) {
+            profiler.enter(templateName);
+        }
+        try {
+            try (final Writer writer = output.open()) {
+                template.merge(context, writer);
+            }
+            bytes = size.get();
+        } finally {
+            if (profiler != null) {
+                profiler.exit(bytes);
+            }
+        }
+        if (metrics != null) {
+            metrics.rendered(templateName, System.nanoTime() - start, bytes);
+        }
+    }
+
+    private Template getTemplate(final String templateName) {
+        final Template template = templates.get(templateName);
+        if (template == null) {
+            return ve.getTemplate(templateName);
+        }
+        return template;
+    }
+
+    /**
+     * Returns the names of all templates the next call to {@link #generateIntern()} will use. The templates are parsed in advance if
+     * warm-up is enabled in the configuration. Default implementation returns an empty set.
+     * 
+     * @return Template names relative to the template directory - Never NULL.
+     * 
+     * @throws GenerateException
+     *             Error determining the template names.
+     */
+    // CHECKSTYLE:OFF Hook method
+    protected Set<String> getTemplateNames() throws GenerateException {
+        return Collections.emptySet();
+    }
+    // CHECKSTYLE:ON
+
+    /**
+     * Returns the profiler that measures every template merged by this generator. Default is NULL.
+     * 
+     * @return Profiler or NULL if templates are not profiled.
+     */
+    // CHECKSTYLE:OFF Hook method
+    protected TemplateProfiler getProfiler() {
+        return null;
+    }
+    // CHECKSTYLE:ON
+
+    /**
+     * Returns the information if templates of the next generation run are profiled. Only in this case the velocity engine measures
+     * templates included with <code>#parse</code>. Default is FALSE.
+     * 
+     * @return TRUE if {@link #getProfiler()} will return a profiler during {@link #generateIntern()}.
+     */
+    // CHECKSTYLE:OFF Hook method
+    protected boolean isProfilingEnabled() {
+        return false;
+    }
+    // CHECKSTYLE:ON
+
+    private Map<String, Template> warmUp(final Set<String> templateNames) throws GenerateException {
+
+        final List<String> names = new ArrayList<>(templateNames);
+        final List<Callable<Template>> tasks = new ArrayList<>(names.size());
+        for (final String name : names) {
+            tasks.add(() -> ve.getTemplate(name));
+        }
 
-            } catch (final IOException ex) {
-                throw new GenerateException("Error merging template '" + templateName + "' to '" + filename + "'!", ex);
+        final int threads = warmUpThreads(getSpecificConfig().getThreads(), names.size());
+        LOG.debug("Parsing {} templates with {} threads", names.size(), threads);
+
+        final Outcome<Template> outcome;
+        final ExecutorService executor = ParallelExecution.newExecutor(getGeneratorConfig().getName() + "-warmup", threads);
+        try {
+            outcome = ParallelExecution.invokeAll(executor, tasks, false);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Report all broken templates at once
+        if (!outcome.getErrors().isEmpty()) {
+            final StringBuilder sb = new StringBuilder();
+            for (final TaskError error : outcome.getErrors()) {
+                LOG.error("Error parsing template: " + names.get(error.getIndex()), error.getCause());
+                sb.append("\n").append(names.get(error.getIndex())).append(": ").append(error.getCause().getMessage());
+            }
+            final GenerateException ex = new GenerateException(
+                    "Error parsing " + outcome.getErrors().size() + " of " + names.size() + " template(s):" + sb,
+                    outcome.getErrors().get(0).getCause());
+            for (int i = 1; i < outcome.getErrors().size(); i++) {
+                ex.addSuppressed(outcome.getErrors().get(i).getCause());
             }
+            throw ex;
+        }
+        if (outcome.isCancelled()) {
+            throw new GenerateException("Parsing templates was interrupted");
         }
 
+        final Map<String, Template> map = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            map.put(names.get(i), outcome.getResults().get(i));
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Returns the number of threads used for parsing templates in advance. Other than rendering, the warm-up is always parallel.
+     * 
+     * @param threads
+     *            Configured number of threads - NULL or a value less than 1 means one thread per available processor.
+     * @param templates
+     *            Number of templates to parse.
+     * 
+     * @return Number of threads - Never more than there are templates and always greater than zero.
+     */
+    static int warmUpThreads(final Integer threads, final int templates) {
+        final int configured;
+        if (threads == null) {
+            configured = Runtime.getRuntime().availableProcessors();
+        } else {
+            configured = ParallelExecution.effectiveThreads(threads);
+        }
+        return Math.max(1, Math.min(configured, templates));
+    }
+
+    @Override
+    protected final boolean isManifestEnabled() {
+        return getSpecificConfig().isManifest();
+    }
+
+    @Override
+    protected final boolean isInMemoryEnabled() {
+        return getSpecificConfig().isInMemory();
     }
 
     @Override
@@ -130,11 +330,28 @@ public abstract class VelocityGenerator<MODEL> extends AbstractGenerator<MODEL,
     @Override
     public final void generate(final boolean incremental) throws GenerateException {
         this.templateDir = Utils4J.getCanonicalFile(getSpecificConfig().getTemplateDir());
-        this.ve = createVelocityEngine(templateDir);
+        this.ve = VelocityEngineCache.get(templateDir, getSpecificConfig().getModificationCheckInterval(), isProfilingEnabled());
 
         LOG.debug("Template directory: {}", templateDir);
 
-        generateIntern();
+        if (getSpecificConfig().isWarmUp()) {
+            this.templates = warmUp(getTemplateNames());
+        } else {
+            this.templates = Collections.emptyMap();
+        }
+        try {
+            generateIntern();
+        } finally {
+            this.templates = Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Drops the cached velocity engine for the configured template directory. The next generation run will parse all templates again.
+     */
+    public final void invalidateEngine() {
+        VelocityEngineCache.invalidate(Utils4J.getCanonicalFile(getSpecificConfig().getTemplateDir()));
+        this.ve = null;
     }
 
     /**
@@ -146,4 +363,37 @@ public abstract class VelocityGenerator<MODEL> extends AbstractGenerator<MODEL,
      */
     protected abstract void generateIntern() throws GenerateException;
 
+    /**
+     * Creates the writer a template is merged into.
+     */
+    @FunctionalInterface
+    private interface Output {
+
+        /**
+         * Opens the writer.
+         * 
+         * @return New writer.
+         * 
+         * @throws IOException
+         *             Error opening the writer.
+         */
+        Writer open() throws IOException;
+
+    }
+
+    /**
+     * Determines the number of bytes written.
+     */
+    @FunctionalInterface
+    private interface Size {
+
+        /**
+         * Returns the size.
+         * 
+         * @return Number of bytes.
+         */
+        long get();
+
+    }
+
 }
@@ -44,6 +44,24 @@ public abstract class VelocityGeneratorConfig extends AbstractElement
     @XmlAttribute(name = "templatePath")
     private String templatePath;
 
+    @XmlAttribute(name = "threads")
+    private Integer threads;
+
+    @XmlAttribute(name = "failFast")
+    private Boolean failFast;
+
+    @XmlAttribute(name = "manifest")
+    private Boolean manifest;
+
+    @XmlAttribute(name = "inMemory")
+    private Boolean inMemory;
+
+    @XmlAttribute(name = "modificationCheckInterval")
+    private Integer modificationCheckInterval;
+
+    @XmlAttribute(name = "warmUp")
+    private Boolean warmUp;
+
     /**
      * Default constructor.
      */
@@ -93,6 +111,140 @@ public abstract class VelocityGeneratorConfig extends AbstractElement
         this.templatePath = templatePath;
     }
 
+    /**
+     * Returns the number of threads used for rendering.
+     * 
+     * @return Number of threads, a value less than 1 for one thread per available processor or NULL for sequential rendering.
+     */
+    public final Integer getThreads() {
+        return threads;
+    }
+
+    /**
+     * Sets the number of threads used for rendering.
+     * 
+     * @param threads
+     *            Number of threads, a value less than 1 for one thread per available processor or NULL for sequential rendering.
+     */
+    public final void setThreads(final Integer threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Returns the error policy for parallel rendering.
+     * 
+     * @return TRUE (default) if rendering stops at the first error, FALSE if all files are rendered and all errors are reported at the end.
+     */
+    public final boolean isFailFast() {
+        if (failFast == null) {
+            return true;
+        }
+        return failFast;
+    }
+
+    /**
+     * Sets the error policy for parallel rendering.
+     * 
+     * @param failFast
+     *            TRUE if rendering stops at the first error, FALSE if all files are rendered and all errors are reported at the end or NULL
+     *            for the default (TRUE).
+     */
+    public final void setFailFast(final Boolean failFast) {
+        this.failFast = failFast;
+    }
+
+    /**
+     * Returns the information if a content hash manifest is maintained in the output directories.
+     * 
+     * @return TRUE if unchanged files are detected using the manifest, FALSE (default) if they are always compared by content.
+     */
+    public final boolean isManifest() {
+        if (manifest == null) {
+            return false;
+        }
+        return manifest;
+    }
+
+    /**
+     * Sets the information if a content hash manifest is maintained in the output directories.
+     * 
+     * @param manifest
+     *            TRUE if unchanged files are detected using the manifest, FALSE if they are always compared by content or NULL for the
+     *            default (FALSE).
+     */
+    public final void setManifest(final Boolean manifest) {
+        this.manifest = manifest;
+    }
+
+    /**
+     * Returns the information if generated content is compared in memory and written directly to the target file.
+     * 
+     * @return TRUE if no temporary files are used, FALSE (default) if content is rendered into a temporary file first.
+     */
+    public final boolean isInMemory() {
+        if (inMemory == null) {
+            return false;
+        }
+        return inMemory;
+    }
+
+    /**
+     * Sets the information if generated content is compared in memory and written directly to the target file.
+     * 
+     * @param inMemory
+     *            TRUE if no temporary files are used, FALSE if content is rendered into a temporary file first or NULL for the default
+     *            (FALSE).
+     */
+    public final void setInMemory(final Boolean inMemory) {
+        this.inMemory = inMemory;
+    }
+
+    /**
+     * Returns the number of seconds between checks for modified templates. Parsed templates are cached across generation runs and only
+     * templates that changed are parsed again.
+     * 
+     * @return Interval in seconds - A value less than 1 disables the check.
+     */
+    public final int getModificationCheckInterval() {
+        if (modificationCheckInterval == null) {
+            return VelocityEngineCache.DEFAULT_MODIFICATION_CHECK_INTERVAL;
+        }
+        return modificationCheckInterval;
+    }
+
+    /**
+     * Sets the number of seconds between checks for modified templates.
+     * 
+     * @param modificationCheckInterval
+     *            Interval in seconds, a value less than 1 to disable the check or NULL for the default.
+     */
+    public final void setModificationCheckInterval(final Integer modificationCheckInterval) {
+        this.modificationCheckInterval = modificationCheckInterval;
+    }
+
+    /**
+     * Returns the information if all templates are parsed in advance before any file is generated.
+     * 
+     * @return TRUE if templates are parsed in parallel before generation and all syntax errors are reported at once, FALSE (default) if
+     *         templates are parsed when they are used the first time.
+     */
+    public final boolean isWarmUp() {
+        if (warmUp == null) {
+            return false;
+        }
+        return warmUp;
+    }
+
+    /**
+     * Sets the information if all templates are parsed in advance before any file is generated.
+     * 
+     * @param warmUp
+     *            TRUE if templates are parsed before generation, FALSE if they are parsed on first use or NULL for the default (FALSE).
+     */
+    public final void setWarmUp(final Boolean warmUp) {
+        this.warmUp = warmUp;
+    }
+
     @Override
     public final VelocityGeneratorConfig init(final SrcGen4JContext context, final Config<GeneratorConfig> parent,
             final Map<String, String> vars) {
@@ -17,24 +17,39 @@
  */
 package org.fuin.srcgen4j.core.xtext;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Set;
 
+import org.apache.commons.io.filefilter.FileFilterUtils;
+import org.apache.commons.io.filefilter.IOFileFilter;
 import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.fuin.objects4j.common.Contract;
+import org.fuin.srcgen4j.commons.IncrementalParser;
 import org.fuin.srcgen4j.commons.ParseException;
-import org.fuin.srcgen4j.commons.Parser;
 import org.fuin.srcgen4j.commons.ParserConfig;
 import org.fuin.srcgen4j.commons.SrcGen4JContext;
+import org.fuin.srcgen4j.core.base.ParallelExecution;
 import org.fuin.srcgen4j.core.emf.AbstractEMFParser;
+import org.fuin.srcgen4j.core.emf.BinaryResourceCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * Parses Xtext models.
+ * Parses Xtext models. An incremental parse only reloads the changed files in the resource set of the last parse.
  */
-public final class XtextParser extends AbstractEMFParser<XtextParserConfig> implements Parser<ResourceSet> {
+public final class XtextParser extends AbstractEMFParser<XtextParserConfig> implements IncrementalParser<ResourceSet> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(XtextParser.class);
 
     private XtextParserConfig parserConfig;
 
+    private IOFileFilter fileFilter;
+
     /**
      * Default constructor.
      */
@@ -53,10 +68,46 @@ public final class XtextParser extends AbstractEMFParser<XtextParserConfig> impl
         setModelDirs(parserConfig.getModelDirs());
         setFileExtensions(parserConfig.getModelExt());
         setModelResources(parserConfig.getModelResources());
+        setThreads(ParallelExecution.effectiveThreads(parserConfig.getThreads()));
+        fileFilter = FileFilterUtils.asFileFilter(this::isModelFile);
+        if (parserConfig.getCacheDir() != null) {
+            LOG.info("Resources loaded from the cache have no node model: {}", parserConfig.getCacheDir());
+            setResourceCache(new BinaryResourceCache(parserConfig.getCacheDir(), parserConfig.getCacheMaxSize() * 1024L * 1024L,
+                    cacheVersion(parserConfig.getSetupClass())));
+        }
 
         doSetup();
     }
 
+    /**
+     * Returns a version of the DSL used to separate cache entries created with different grammars. The version is derived from the setup
+     * class: Its name, the implementation version of its package and the time stamp of the class file or the JAR entry.
+     * 
+     * @param setupClass
+     *            Setup class of the DSL.
+     * 
+     * @return Version.
+     */
+    static String cacheVersion(final Class<?> setupClass) {
+        final StringBuilder sb = new StringBuilder(setupClass.getName());
+        final Package pkg = setupClass.getPackage();
+        if (pkg != null && pkg.getImplementationVersion() != null) {
+            sb.append(':').append(pkg.getImplementationVersion());
+        }
+        final URL url = setupClass.getResource(setupClass.getSimpleName() + ".class");
+        if (url != null) {
+            try {
+                final URLConnection con = url.openConnection();
+                con.setUseCaches(false);
+                sb.append(':').append(con.getLastModified());
+                con.getInputStream().close();
+            } catch (final IOException ex) {
+                LOG.debug("Wasn't able to read the time stamp of: " + url, ex);
+            }
+        }
+        return sb.toString();
+    }
+
     private void doSetup() {
         final String errorMessage = "Initializing the Xtext DSL with '" + parserConfig.getSetupClassName() + ".doSetup()' failed!";
         try {
@@ -74,14 +125,39 @@ public final class XtextParser extends AbstractEMFParser<XtextParserConfig> impl
         parseModel();
         // resolveProxies(); TODO Do we need to resolve cross references?
 
+        return verify(false);
+
+    }
+
+    @Override
+    public final ResourceSet parse(final Set<File> files) throws ParseException {
+
+        parseModel(files);
+
+        return verify(true);
+
+    }
+
+    @Override
+    public final IOFileFilter getFileFilter() {
+        return fileFilter;
+    }
+
+    private ResourceSet verify(final boolean incremental) throws ParseException {
         if (isError()) {
             throw new ParseException("There was an error parsing at least one of the resources - See log for details");
         }
-        if (!isModelFullyResolved()) {
+        final boolean resolved;
+        if (incremental) {
+            resolved = isReloadedModelFullyResolved();
+        } else {
+            resolved = isModelFullyResolved();
+        }
+        if (!resolved) {
             throw new ParseException("There is at least one unresolved reference - See log for details");
         }
+        storeInCache();
         return getResourceSet();
-
     }
 
 }
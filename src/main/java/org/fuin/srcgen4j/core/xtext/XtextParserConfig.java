@@ -38,6 +38,7 @@ import org.fuin.srcgen4j.commons.Config;
 import org.fuin.srcgen4j.commons.InitializableElement;
 import org.fuin.srcgen4j.commons.ParserConfig;
 import org.fuin.srcgen4j.commons.SrcGen4JContext;
+import org.fuin.srcgen4j.core.emf.BinaryResourceCache;
 import org.fuin.utils4j.Utils4J;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -60,6 +61,15 @@ public class XtextParserConfig extends AbstractElement implements InitializableE
     @XmlAttribute(name = "setupClass")
     private String setupClassName;
 
+    @XmlAttribute(name = "threads")
+    private Integer threads;
+
+    @XmlAttribute(name = "cachePath")
+    private String cachePath;
+
+    @XmlAttribute(name = "cacheMaxSize")
+    private Integer cacheMaxSize;
+
     @XmlTransient
     private SrcGen4JContext context;
 
@@ -150,11 +160,86 @@ public class XtextParserConfig extends AbstractElement implements InitializableE
         this.setupClassName = setupClassName;
     }
 
+    /**
+     * Returns the number of threads used for loading the model files.
+     * 
+     * @return Number of threads, a value less than 1 for one thread per available processor or NULL for sequential loading.
+     */
+    public final Integer getThreads() {
+        return threads;
+    }
+
+    /**
+     * Sets the number of threads used for loading the model files.
+     * 
+     * @param threads
+     *            Number of threads, a value less than 1 for one thread per available processor or NULL for sequential loading.
+     */
+    public final void setThreads(final Integer threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Returns the path of the directory used for caching parsed resources.
+     * 
+     * @return Cache path or NULL if parsed resources are not cached.
+     */
+    public final String getCachePath() {
+        return cachePath;
+    }
+
+    /**
+     * Returns the directory used for caching parsed resources.
+     * 
+     * @return Canonical cache directory or NULL if parsed resources are not cached.
+     */
+    public final File getCacheDir() {
+        if (cachePath == null) {
+            return null;
+        }
+        return Utils4J.getCanonicalFile(new File(cachePath));
+    }
+
+    /**
+     * Sets the path of the directory used for caching parsed resources.
+     * 
+     * @param cachePath
+     *            Cache path or NULL if parsed resources should not be cached.
+     */
+    public final void setCachePath(final String cachePath) {
+        this.cachePath = cachePath;
+    }
+
+    /**
+     * Returns the maximum size of the resource cache.
+     * 
+     * @return Size in megabytes - Defaults to {@link BinaryResourceCache#DEFAULT_MAX_SIZE_MB}.
+     */
+    public final int getCacheMaxSize() {
+        if (cacheMaxSize == null) {
+            return BinaryResourceCache.DEFAULT_MAX_SIZE_MB;
+        }
+        return cacheMaxSize;
+    }
+
+    /**
+     * Sets the maximum size of the resource cache.
+     * 
+     * @param cacheMaxSize
+     *            Size in megabytes or NULL for the default.
+     */
+    public final void setCacheMaxSize(final Integer cacheMaxSize) {
+        this.cacheMaxSize = cacheMaxSize;
+    }
+
     @Override
     public final XtextParserConfig init(final SrcGen4JContext context, final Config<ParserConfig> parent, final Map<String, String> vars) {
         this.context = context;
         inheritVariables(vars);
         setModelPath(replaceVars(getModelPath(), getVarMap()));
+        if (cachePath != null) {
+            setCachePath(replaceVars(cachePath, getVarMap()));
+        }
         return this;
     }
 
@@ -0,0 +1,188 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.base;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.fuin.srcgen4j.commons.GenerateException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// CHECKSTYLE:OFF
+class AsyncWriteStageTest {
+
+    @Test
+    void testAwaitWaitsForAllTasks() throws Exception {
+
+        // PREPARE
+        final AtomicInteger count = new AtomicInteger();
+        final AsyncWriteStage testee = new AsyncWriteStage("test", 3, 5);
+
+        // EXECUTE
+        try {
+            for (int i = 0; i < 100; i++) {
+                testee.submit(() -> {
+                    sleep(1);
+                    count.incrementAndGet();
+                });
+            }
+            testee.await();
+        } finally {
+            testee.close();
+        }
+
+        // VERIFY
+        assertThat(count.get()).isEqualTo(100);
+
+    }
+
+    @Test
+    void testSubmitBlocksIfFull() throws Exception {
+
+        // PREPARE
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch submitted = new CountDownLatch(1);
+        final AsyncWriteStage testee = new AsyncWriteStage("test", 1, 2);
+        try {
+            testee.submit(() -> await(release));
+            testee.submit(() -> await(release));
+            final Thread producer = new Thread(() -> {
+                try {
+                    testee.submit(() -> {
+                    });
+                    submitted.countDown();
+                } catch (final GenerateException ex) {
+                    throw new RuntimeException(ex);
+                }
+            });
+
+            // EXECUTE
+            producer.start();
+            Thread.sleep(100);
+
+            // VERIFY
+            assertThat(submitted.getCount()).isEqualTo(1);
+            release.countDown();
+            producer.join(5000);
+            assertThat(submitted.getCount()).isEqualTo(0);
+            testee.await();
+        } finally {
+            testee.close();
+        }
+
+    }
+
+    @Test
+    void testAwaitReportsAllErrors() throws Exception {
+
+        // PREPARE
+        final AsyncWriteStage testee = new AsyncWriteStage("test", 2, 10);
+        try {
+            testee.submit(() -> {
+                throw new GenerateException("Error 1");
+            });
+            testee.submit(() -> {
+                throw new IllegalStateException("Error 2");
+            });
+            testee.submit(() -> {
+            });
+
+            // EXECUTE
+            try {
+                testee.await();
+                fail();
+            } catch (final GenerateException ex) {
+                // VERIFY
+                assertThat(ex.getSuppressed()).hasSize(1);
+            }
+
+            // Errors are only reported once
+            testee.await();
+        } finally {
+            testee.close();
+        }
+
+    }
+
+    @Test
+    void testConcurrentDirectoryCreation(@TempDir final File dir) throws Exception {
+
+        // PREPARE
+        final int files = 500;
+        final CountDownLatch start = new CountDownLatch(1);
+        final AsyncWriteStage testee = new AsyncWriteStage("test", 8, files);
+
+        // EXECUTE
+        try {
+            for (int i = 0; i < files; i++) {
+                final File file = file(dir, i);
+                testee.submit(() -> {
+                    await(start);
+                    // Same calls as the asynchronous write of an artifact
+                    AbstractGenerator.createDirectories(file.getParentFile());
+                    try {
+                        Files.write(file.toPath(), file.getName().getBytes(StandardCharsets.UTF_8));
+                    } catch (final IOException ex) {
+                        throw new GenerateException("Error writing: " + file, ex);
+                    }
+                });
+            }
+            // All threads start creating the same directories at once
+            start.countDown();
+            testee.await();
+        } finally {
+            testee.close();
+        }
+
+        // VERIFY
+        for (int i = 0; i < files; i++) {
+            assertThat(file(dir, i)).hasContent(file(dir, i).getName());
+        }
+
+    }
+
+    private static File file(final File dir, final int i) {
+        return new File(dir, "a/b" + (i % 3) + "/c/d" + (i % 7) + "/e/File" + i + ".txt");
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
+// CHECKSTYLE:ON
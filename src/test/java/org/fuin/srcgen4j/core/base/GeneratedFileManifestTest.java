@@ -0,0 +1,103 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.base;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// CHECKSTYLE:OFF
+class GeneratedFileManifestTest {
+
+    @TempDir
+    File dir;
+
+    @Test
+    void testSaveAndLoad() throws Exception {
+
+        // PREPARE
+        final File file = new File(dir, "a/A.java");
+        FileUtils.write(file, "class A {}", StandardCharsets.UTF_8);
+        final String hash = GeneratedFileManifest.toHex(GeneratedFileManifest.createDigest().digest("class A {}".getBytes(StandardCharsets.UTF_8)));
+        final GeneratedFileManifest testee = GeneratedFileManifest.load(dir);
+        testee.update(file, hash);
+
+        // EXECUTE
+        testee.save();
+        final GeneratedFileManifest copy = GeneratedFileManifest.load(dir);
+
+        // VERIFY
+        assertThat(new File(dir, GeneratedFileManifest.FILENAME)).exists();
+        assertThat(copy.isUnchanged(file, hash)).isTrue();
+        assertThat(copy.isUnchanged(file, "other")).isFalse();
+        assertThat(copy.isUnchanged(new File(dir, "a/B.java"), hash)).isFalse();
+
+    }
+
+    @Test
+    void testDetectsExternalChange() throws Exception {
+
+        // PREPARE
+        final File file = new File(dir, "A.java");
+        FileUtils.write(file, "class A {}", StandardCharsets.UTF_8);
+        final GeneratedFileManifest testee = GeneratedFileManifest.load(dir);
+        testee.update(file, "hash");
+
+        // EXECUTE
+        FileUtils.write(file, "class A { int a; }", StandardCharsets.UTF_8);
+
+        // VERIFY
+        assertThat(testee.isUnchanged(file, "hash")).isFalse();
+
+    }
+
+    @Test
+    void testPersistWithManifest() throws Exception {
+
+        // PREPARE
+        final GeneratedFileManifest manifest = GeneratedFileManifest.load(dir);
+        final File file = new File(dir, "A.java");
+
+        // EXECUTE
+        final GeneratedFile first = new GeneratedFile(file, null, false, manifest);
+        try (final OutputStream out = first.createTmpOutputStream()) {
+            out.write("class A {}".getBytes(StandardCharsets.UTF_8));
+        }
+        first.persist();
+        final GeneratedFile second = new GeneratedFile(file, null, false, manifest);
+        try (final OutputStream out = second.createTmpOutputStream()) {
+            out.write("class A {}".getBytes(StandardCharsets.UTF_8));
+        }
+        second.persist();
+
+        // VERIFY
+        assertThat(first.isChanged()).isTrue();
+        assertThat(second.isChanged()).isFalse();
+        assertThat(second.getTmpFile()).doesNotExist();
+        assertThat(FileUtils.readFileToString(file, StandardCharsets.UTF_8)).isEqualTo("class A {}");
+
+    }
+
+}
+// CHECKSTYLE:ON
@@ -0,0 +1,63 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.base;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// CHECKSTYLE:OFF
+class GeneratedFileTest {
+
+    @TempDir
+    File dir;
+
+    @Test
+    void testPersistInMemory() throws Exception {
+
+        // PREPARE
+        final File file = new File(dir, "A.java");
+        final RenderBuffer buffer = RenderBuffer.get();
+        buffer.write("class A {}".getBytes(StandardCharsets.UTF_8));
+
+        // EXECUTE
+        final GeneratedFile first = new GeneratedFile(file, null);
+        first.persist(buffer.getBuffer(), buffer.size(), true);
+        final GeneratedFile second = new GeneratedFile(file, null);
+        second.persist(buffer.getBuffer(), buffer.size(), true);
+        final RenderBuffer other = RenderBuffer.get();
+        other.write("class B {}".getBytes(StandardCharsets.UTF_8));
+        final GeneratedFile third = new GeneratedFile(file, null);
+        third.persist(other.getBuffer(), other.size(), true);
+
+        // VERIFY
+        assertThat(first.isChanged()).isTrue();
+        assertThat(second.isChanged()).isFalse();
+        assertThat(third.isChanged()).isTrue();
+        assertThat(first.getTmpFile()).doesNotExist();
+        assertThat(FileUtils.readFileToString(file, StandardCharsets.UTF_8)).isEqualTo("class B {}");
+
+    }
+
+}
+// CHECKSTYLE:ON
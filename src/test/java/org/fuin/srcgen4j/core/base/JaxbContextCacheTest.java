@@ -0,0 +1,97 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.base;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.StringReader;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import org.junit.jupiter.api.Test;
+
+// CHECKSTYLE:OFF
+class JaxbContextCacheTest {
+
+    @Test
+    void testGetReturnsSameInstance() throws Exception {
+        assertThat(JaxbContextCache.get(Dummy.class)).isSameAs(JaxbContextCache.get(Dummy.class));
+    }
+
+    @Test
+    void testUnmarshalReusesUnmarshaller() throws Exception {
+
+        // PREPARE
+        final JaxbContextCache testee = JaxbContextCache.get(Dummy.class);
+
+        // EXECUTE
+        final Dummy first = testee.unmarshal(new StringReader("<dummy name=\"a\"/>"));
+        final Dummy second = testee.unmarshal(new StringReader("<dummy name=\"b\"/>"));
+
+        // VERIFY
+        assertThat(first.name).isEqualTo("a");
+        assertThat(second.name).isEqualTo("b");
+
+    }
+
+    @Test
+    void testMarshalReusesMarshaller() throws Exception {
+
+        // PREPARE
+        final JaxbContextCache testee = JaxbContextCache.get(Dummy.class);
+        final Dummy first = new Dummy();
+        first.name = "a";
+        final Dummy second = new Dummy();
+        second.name = "b";
+
+        // EXECUTE
+        final String firstXml = testee.marshal(first);
+        final String secondXml = testee.marshal(second);
+
+        // VERIFY
+        assertThat(firstXml).contains("<dummy name=\"a\"/>");
+        assertThat(secondXml).contains("<dummy name=\"b\"/>");
+        final Dummy copy = testee.unmarshal(new StringReader(secondXml));
+        assertThat(copy.name).isEqualTo("b");
+
+    }
+
+    @Test
+    void testGetInvalidClass() {
+
+        // EXECUTE + VERIFY
+        assertThatThrownBy(() -> JaxbContextCache.get(Runnable.class)).isInstanceOf(JAXBException.class);
+
+    }
+
+    @XmlRootElement(name = "dummy")
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class Dummy {
+
+        @XmlAttribute
+        private String name;
+
+    }
+
+}
+// CHECKSTYLE:ON
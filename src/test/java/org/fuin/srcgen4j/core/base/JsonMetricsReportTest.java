@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.base;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// CHECKSTYLE:OFF
+class JsonMetricsReportTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testToJson() {
+
+        // PREPARE
+        final JsonMetricsReport testee = new JsonMetricsReport();
+        testee.parsed("XtextParser", 2000000, 3);
+        testee.rendered("a.vm", 1000000, 100);
+        testee.rendered("b.vm", 3000000, 50);
+        testee.rendered("a.vm", 2000000, 100);
+        testee.persisted(new File("A.java"), 100, true);
+        testee.persisted(new File("B.java"), 50, false);
+        testee.skipped(new File("C.java"));
+        testee.created("x.y.\"Quoted\"Factory", 500000, 2);
+
+        // EXECUTE
+        final String json = testee.toJson();
+
+        // VERIFY
+        assertThat(json).contains("\"XtextParser\": {\"count\": 1, \"totalMillis\": 2.000, \"maxMillis\": 2.000, \"resources\": 3}");
+        assertThat(json).contains("\"a.vm\": {\"count\": 2, \"totalMillis\": 3.000, \"maxMillis\": 2.000, \"bytes\": 200}");
+        assertThat(json.indexOf("\"b.vm\"")).isLessThan(json.indexOf("\"a.vm\""));
+        assertThat(json).contains("\"x.y.\\\"Quoted\\\"Factory\": {\"count\": 1, \"totalMillis\": 0.500");
+        assertThat(json).contains(
+                "\"files\": {\"changed\": 1, \"unchanged\": 1, \"skipped\": 1, \"bytesGenerated\": 150, \"bytesWritten\": 100}");
+        assertThat(json).contains("\"generators\": {}");
+
+    }
+
+    @Test
+    void testWrite() throws Exception {
+
+        // PREPARE
+        final JsonMetricsReport testee = new JsonMetricsReport();
+        testee.generated("gen1", 1000);
+        final File file = tempDir.resolve("metrics.json").toFile();
+
+        // EXECUTE
+        testee.write(file);
+
+        // VERIFY
+        assertThat(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8)).isEqualTo(testee.toJson());
+
+    }
+
+}
+// CHECKSTYLE:ON
@@ -0,0 +1,271 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.base;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.fuin.srcgen4j.core.base.ParallelExecution.Outcome;
+import org.junit.jupiter.api.Test;
+
+// CHECKSTYLE:OFF
+class ParallelExecutionTest {
+
+    @Test
+    void testEffectiveThreads() {
+        assertThat(ParallelExecution.effectiveThreads(null)).isEqualTo(1);
+        assertThat(ParallelExecution.effectiveThreads(3)).isEqualTo(3);
+        assertThat(ParallelExecution.effectiveThreads(0)).isEqualTo(Runtime.getRuntime().availableProcessors());
+    }
+
+    @Test
+    void testInvokeAllKeepsOrder() {
+
+        // PREPARE
+        final List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final int value = i;
+            tasks.add(() -> {
+                Thread.sleep((100 - value) % 7);
+                return value;
+            });
+        }
+        final ExecutorService executor = ParallelExecution.newExecutor("test", 4);
+
+        // EXECUTE
+        final Outcome<Integer> outcome;
+        try {
+            outcome = ParallelExecution.invokeAll(executor, tasks, true);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // VERIFY
+        assertThat(outcome.isSuccess()).isTrue();
+        assertThat(outcome.getResults()).hasSize(100);
+        for (int i = 0; i < 100; i++) {
+            assertThat(outcome.getResults().get(i)).isEqualTo(i);
+        }
+
+    }
+
+    @Test
+    void testInvokeAllCollectsAllErrors() {
+
+        // PREPARE
+        final List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            final int value = i;
+            tasks.add(() -> {
+                if (value % 3 == 0) {
+                    throw new IllegalStateException("Error " + value);
+                }
+                return value;
+            });
+        }
+        final ExecutorService executor = ParallelExecution.newExecutor("test", 3);
+
+        // EXECUTE
+        final Outcome<Integer> outcome;
+        try {
+            outcome = ParallelExecution.invokeAll(executor, tasks, false);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // VERIFY
+        assertThat(outcome.isSuccess()).isFalse();
+        assertThat(outcome.isCancelled()).isFalse();
+        assertThat(outcome.getErrors()).hasSize(4);
+        assertThat(outcome.getErrors().get(0).getIndex()).isEqualTo(0);
+        assertThat(outcome.getErrors().get(1).getIndex()).isEqualTo(3);
+        assertThat(outcome.getErrors().get(2).getIndex()).isEqualTo(6);
+        assertThat(outcome.getErrors().get(3).getIndex()).isEqualTo(9);
+        assertThat(outcome.getErrors().get(3).getCause()).hasMessage("Error 9");
+        assertThat(outcome.getResults().get(1)).isEqualTo(1);
+        assertThat(outcome.getResults().get(3)).isNull();
+
+    }
+
+    @Test
+    void testInvokeAllFailFast() {
+
+        // PREPARE
+        final List<Callable<Integer>> tasks = new ArrayList<>();
+        tasks.add(() -> {
+            throw new IllegalStateException("Failed");
+        });
+        for (int i = 1; i < 10; i++) {
+            final int value = i;
+            tasks.add(() -> {
+                Thread.sleep(1000);
+                return value;
+            });
+        }
+        final ExecutorService executor = ParallelExecution.newExecutor("test", 2);
+
+        // EXECUTE
+        final Outcome<Integer> outcome;
+        try {
+            outcome = ParallelExecution.invokeAll(executor, tasks, true);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // VERIFY
+        assertThat(outcome.isSuccess()).isFalse();
+        assertThat(outcome.isCancelled()).isTrue();
+        assertThat(outcome.getErrors()).isNotEmpty();
+        assertThat(outcome.getErrors().get(0).getIndex()).isEqualTo(0);
+
+    }
+
+    @Test
+    void testInvokeAllIteratorIsBounded() {
+
+        // PREPARE
+        final AtomicInteger taken = new AtomicInteger();
+        final Iterator<Callable<Integer>> tasks = new Iterator<Callable<Integer>>() {
+            @Override
+            public boolean hasNext() {
+                return taken.get() < 100;
+            }
+
+            @Override
+            public Callable<Integer> next() {
+                final int value = taken.getAndIncrement();
+                return () -> {
+                    Thread.sleep((100 - value) % 7);
+                    return value;
+                };
+            }
+        };
+        final List<Integer> results = new ArrayList<>();
+        final ExecutorService executor = ParallelExecution.newExecutor("test", 4);
+
+        // EXECUTE
+        final Outcome<Integer> outcome;
+        try {
+            outcome = ParallelExecution.invokeAll(executor, tasks, 8, true, result -> {
+                assertThat(taken.get() - results.size()).isLessThanOrEqualTo(8);
+                results.add(result);
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // VERIFY
+        assertThat(outcome.isSuccess()).isTrue();
+        assertThat(outcome.getCount()).isEqualTo(100);
+        assertThat(results).hasSize(100);
+        for (int i = 0; i < 100; i++) {
+            assertThat(results.get(i)).isEqualTo(i);
+        }
+
+    }
+
+    @Test
+    void testInvokeAllIteratorFailFast() {
+
+        // PREPARE
+        final List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final int value = i;
+            tasks.add(() -> {
+                if (value == 3) {
+                    throw new IllegalStateException("Error " + value);
+                }
+                return value;
+            });
+        }
+        final List<Integer> results = new ArrayList<>();
+        final ExecutorService executor = ParallelExecution.newExecutor("test", 2);
+
+        // EXECUTE
+        final Outcome<Integer> outcome;
+        try {
+            outcome = ParallelExecution.invokeAll(executor, tasks.iterator(), 4, true, results::add);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // VERIFY
+        assertThat(outcome.isSuccess()).isFalse();
+        assertThat(outcome.isCancelled()).isTrue();
+        assertThat(outcome.getCount()).isLessThan(100);
+        assertThat(outcome.getErrors()).hasSize(1);
+        assertThat(outcome.getErrors().get(0).getIndex()).isEqualTo(3);
+        assertThat(outcome.getErrors().get(0).getTask()).isSameAs(tasks.get(3));
+        assertThat(results).containsExactly(0, 1, 2);
+
+    }
+
+    @Test
+    void testInvokeAllFailFastDoesNotInterruptRunningTasks() {
+
+        // PREPARE
+        final AtomicInteger started = new AtomicInteger();
+        final AtomicInteger finished = new AtomicInteger();
+        final AtomicInteger interrupted = new AtomicInteger();
+        final List<Callable<Integer>> tasks = new ArrayList<>();
+        tasks.add(() -> {
+            Thread.sleep(50);
+            throw new IllegalStateException("Failed");
+        });
+        for (int i = 1; i < 10; i++) {
+            final int value = i;
+            tasks.add(() -> {
+                started.incrementAndGet();
+                try {
+                    Thread.sleep(300);
+                } catch (final InterruptedException ex) {
+                    interrupted.incrementAndGet();
+                    throw ex;
+                }
+                finished.incrementAndGet();
+                return value;
+            });
+        }
+        final ExecutorService executor = ParallelExecution.newExecutor("test", 2);
+
+        // EXECUTE
+        final Outcome<Integer> outcome;
+        try {
+            outcome = ParallelExecution.invokeAll(executor, tasks.iterator(), 4, true, result -> {
+            });
+        } finally {
+            ParallelExecution.shutdown(executor);
+        }
+
+        // VERIFY
+        assertThat(outcome.isCancelled()).isTrue();
+        assertThat(outcome.getErrors()).hasSize(1);
+        assertThat(started.get()).isGreaterThan(0).isLessThan(9);
+        assertThat(interrupted.get()).isEqualTo(0);
+        assertThat(finished.get()).isEqualTo(started.get());
+
+    }
+
+}
+// CHECKSTYLE:ON
@@ -0,0 +1,249 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.emf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.util.InternalEList;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link AbstractEMFParser}. The model consists of Ecore files where the first class of every file extends the first class of the
+ * previous file.
+ */
+class AbstractEMFParserTest {
+
+    // CHECKSTYLE:OFF
+
+    private static final String EXTENSION = "ecore";
+
+    @TempDir
+    File tempDir;
+
+    @BeforeAll
+    static void beforeAll() {
+        Resource.Factory.Registry.INSTANCE.getExtensionToFactoryMap().put(EXTENSION, new XMIResourceFactoryImpl());
+    }
+
+    @Test
+    void testIsModelFullyResolvedParallelEqualsSequential() throws Exception {
+
+        final File dir = tempDir.getCanonicalFile();
+        writeModel(dir, 10);
+
+        final TestParser sequential = new TestParser(dir, 1);
+        final TestParser parallel = new TestParser(dir, 4);
+        sequential.parse();
+        parallel.parse();
+        assertThat(countProxies(sequential.getResourceSet())).isPositive();
+        assertThat(countProxies(parallel.getResourceSet())).isEqualTo(countProxies(sequential.getResourceSet()));
+
+        // TEST
+        final boolean sequentialResolved = sequential.isModelFullyResolved();
+        final boolean parallelResolved = parallel.isModelFullyResolved();
+
+        // VERIFY
+        assertThat(sequentialResolved).isTrue();
+        assertThat(parallelResolved).isTrue();
+        assertThat(countProxies(sequential.getResourceSet())).isZero();
+        assertThat(countProxies(parallel.getResourceSet())).isZero();
+        assertThat(superTypes(parallel.getResourceSet())).isEqualTo(superTypes(sequential.getResourceSet()));
+
+    }
+
+    @Test
+    void testIncrementalChangedReferencedFile() throws Exception {
+
+        final File dir = tempDir.getCanonicalFile();
+        writeModel(dir, 10);
+        final TestParser parser = new TestParser(dir, 4);
+        parser.parse();
+        assertThat(parser.isModelFullyResolved()).isTrue();
+        final File file = new File(dir, "pkg3." + EXTENSION);
+        final URI uri = URI.createFileURI(file.getPath());
+        assertThat(parser.getDependencies().isComplete()).isTrue();
+        assertThat(parser.getDependencies().dependentsOf(Collections.singleton(uri)))
+                .containsOnly(URI.createFileURI(new File(dir, "pkg4." + EXTENSION).getPath()));
+
+        // Add a second class to the referenced file
+        final ResourceSet resourceSet = new ResourceSetImpl();
+        final Resource changed = resourceSet.getResource(uri, true);
+        final EClass extra = EcoreFactory.eINSTANCE.createEClass();
+        extra.setName("Extra3");
+        ((EPackage) changed.getContents().get(0)).getEClassifiers().add(extra);
+        changed.save(Collections.emptyMap());
+
+        // TEST
+        parser.parse(Collections.singleton(file));
+
+        // VERIFY
+        assertThat(parser.isReloadedModelFullyResolved()).isTrue();
+        assertThat(parser.isError()).isFalse();
+        final Resource reloaded = parser.getResourceSet().getResource(uri, false);
+        assertThat(((EPackage) reloaded.getContents().get(0)).getEClassifier("Extra3")).isNotNull();
+        assertThat(superType(parser.getResourceSet(), 4).eResource()).isSameAs(reloaded);
+        assertThat(superTypes(parser.getResourceSet())).isEqualTo(superTypes(resourceSet(dir)));
+
+    }
+
+    @Test
+    void testIncrementalDeletedFile() throws Exception {
+
+        final File dir = tempDir.getCanonicalFile();
+        writeModel(dir, 10);
+        final TestParser parser = new TestParser(dir, 1);
+        parser.parse();
+        assertThat(parser.isModelFullyResolved()).isTrue();
+        final File file = new File(dir, "pkg3." + EXTENSION);
+        final URI uri = URI.createFileURI(file.getPath());
+        final URI dependent = URI.createFileURI(new File(dir, "pkg4." + EXTENSION).getPath());
+        assertThat(file.delete()).isTrue();
+
+        // TEST
+        parser.parse(Collections.singleton(file));
+
+        // VERIFY
+        assertThat(parser.isReloadedModelFullyResolved()).isFalse();
+        assertThat(parser.getResourceSet().getResource(uri, false)).isNull();
+        assertThat(superType(parser.getResourceSet(), 4).eIsProxy()).isTrue();
+        assertThat(parser.getDependencies().dependentsOf(Collections.emptySet())).containsOnly(dependent);
+
+        // TEST
+        writeModel(dir, 10);
+        parser.parse(Collections.singleton(file));
+
+        // VERIFY
+        assertThat(parser.isReloadedModelFullyResolved()).isTrue();
+        assertThat(superType(parser.getResourceSet(), 4).eResource()).isSameAs(parser.getResourceSet().getResource(uri, false));
+        assertThat(parser.getDependencies().dependentsOf(Collections.emptySet())).isEmpty();
+        assertThat(countProxies(parser.getResourceSet())).isZero();
+
+    }
+
+    static ResourceSet resourceSet(final File dir) {
+        final TestParser parser = new TestParser(dir, 1);
+        parser.parse();
+        assertThat(parser.isModelFullyResolved()).isTrue();
+        return parser.getResourceSet();
+    }
+
+    static EClass superType(final ResourceSet resourceSet, final int index) {
+        for (final Resource resource : resourceSet.getResources()) {
+            final EPackage pkg = (EPackage) resource.getContents().get(0);
+            if (pkg.getName().equals("pkg" + index)) {
+                final EClass eClass = (EClass) pkg.getEClassifiers().get(0);
+                return ((InternalEList<EClass>) eClass.getESuperTypes()).basicList().get(0);
+            }
+        }
+        throw new IllegalArgumentException("Unknown package: pkg" + index);
+    }
+
+    static void writeModel(final File dir, final int files) throws IOException {
+        final EcoreFactory factory = EcoreFactory.eINSTANCE;
+        final ResourceSet resourceSet = new ResourceSetImpl();
+        EClass previous = null;
+        for (int i = 0; i < files; i++) {
+            final EPackage pkg = factory.createEPackage();
+            pkg.setName("pkg" + i);
+            pkg.setNsURI("http://www.fuin.org/srcgen4j/test/pkg" + i);
+            final EClass eClass = factory.createEClass();
+            eClass.setName("Class" + i);
+            pkg.getEClassifiers().add(eClass);
+            if (previous != null) {
+                eClass.getESuperTypes().add(previous);
+            }
+            previous = eClass;
+            final Resource resource = resourceSet.createResource(URI.createFileURI(new File(dir, "pkg" + i + "." + EXTENSION).getPath()));
+            resource.getContents().add(pkg);
+        }
+        for (final Resource resource : resourceSet.getResources()) {
+            resource.save(Collections.emptyMap());
+        }
+    }
+
+    static int countProxies(final ResourceSet resourceSet) {
+        int count = 0;
+        for (final Resource resource : resourceSet.getResources()) {
+            final Iterator<EObject> it = resource.getAllContents();
+            while (it.hasNext()) {
+                final Iterator<EObject> refIt = ((InternalEList<EObject>) it.next().eCrossReferences()).basicIterator();
+                while (refIt.hasNext()) {
+                    if (refIt.next().eIsProxy()) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    static List<String> superTypes(final ResourceSet resourceSet) {
+        final List<String> result = new ArrayList<>();
+        for (final Resource resource : resourceSet.getResources()) {
+            final EPackage pkg = (EPackage) resource.getContents().get(0);
+            final EClass eClass = (EClass) pkg.getEClassifiers().get(0);
+            for (final EClass superType : eClass.getESuperTypes()) {
+                result.add(eClass.getName() + " extends " + superType.getName());
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * Parser that only loads the Ecore files.
+     */
+    static final class TestParser extends AbstractEMFParser<Object> {
+
+        TestParser(final File dir, final int threads) {
+            super(Object.class, Collections.singletonList(dir), EXTENSION);
+            setThreads(threads);
+        }
+
+        void parse() {
+            parseModel();
+        }
+
+        void parse(final Set<File> files) {
+            parseModel(files);
+        }
+
+    }
+
+    // CHECKSTYLE:ON
+
+}
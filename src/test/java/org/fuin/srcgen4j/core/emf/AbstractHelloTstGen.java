@@ -8,18 +8,22 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.validation.constraints.NotNull;
 
 import org.apache.commons.io.FileUtils;
-import org.fuin.srcgen4j.commons.ArtifactFactory;
 import org.fuin.srcgen4j.commons.ArtifactFactoryConfig;
 import org.fuin.srcgen4j.commons.GenerateException;
 import org.fuin.srcgen4j.commons.GeneratedArtifact;
 import org.fuin.utils4j.Utils4J;
 import org.fuin.xsample.xSampleDsl.Greeting;
 
-public final class AbstractHelloTstGen implements ArtifactFactory<Greeting> {
+public final class AbstractHelloTstGen implements ThreadSafeArtifactFactory<Greeting> {
+
+    /** Names of the threads that created artifacts in a real run. */
+    public static final Set<String> THREADS = ConcurrentHashMap.newKeySet();
 
     private String artifact;
 
@@ -47,6 +51,9 @@ public final class AbstractHelloTstGen implements ArtifactFactory<Greeting> {
     @Override
     public final List<GeneratedArtifact> create(@NotNull final Greeting greeting, @NotNull final Map<String, Object> context,
             final boolean preparationRun) throws GenerateException {
+        if (!preparationRun) {
+            THREADS.add(Thread.currentThread().getName());
+        }
         try {
             final String src = FileUtils.readFileToString(new File("src/test/resources/AbstractHello.template"), StandardCharsets.UTF_8);
             final Map<String, String> vars = new HashMap<>();
@@ -0,0 +1,155 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.emf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EAnnotation;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link BinaryResourceCache}.
+ */
+class BinaryResourceCacheTest {
+
+    // CHECKSTYLE:OFF
+
+    @Test
+    void testStoreAndLoad(@TempDir final File dir) throws Exception {
+
+        // PREPARE
+        final File modelFile = new File(dir, "model.txt");
+        FileUtils.write(modelFile, "annotation", StandardCharsets.UTF_8);
+        final URI uri = URI.createFileURI(modelFile.getCanonicalPath());
+        final BinaryResourceCache testee = new BinaryResourceCache(new File(dir, "cache"), 1024 * 1024);
+        assertThat(testee.load(uri)).isNull();
+
+        // TEST
+        testee.store(resource(uri, "annotation"));
+        final Resource cached = testee.load(uri);
+
+        // VERIFY
+        assertThat(cached).isNotNull();
+        assertThat(((EAnnotation) cached.getContents().get(0)).getSource()).isEqualTo("annotation");
+
+        // TEST
+        FileUtils.write(modelFile, "changed", StandardCharsets.UTF_8);
+        testee.forget(uri);
+
+        // VERIFY
+        assertThat(testee.load(uri)).isNull();
+
+    }
+
+    @Test
+    void testEvict(@TempDir final File dir) throws Exception {
+
+        // PREPARE
+        final File cacheDir = new File(dir, "cache");
+        final BinaryResourceCache testee = new BinaryResourceCache(cacheDir, 1);
+        final File modelFile = new File(dir, "model.txt");
+        FileUtils.write(modelFile, "annotation", StandardCharsets.UTF_8);
+        final URI uri = URI.createFileURI(modelFile.getCanonicalPath());
+        testee.store(resource(uri, "annotation"));
+        assertThat(cacheDir.list()).hasSize(1);
+
+        // TEST
+        testee.evict();
+
+        // VERIFY
+        assertThat(cacheDir.list()).isEmpty();
+
+    }
+
+    @Test
+    void testReferencedFileChanged(@TempDir final File dir) throws Exception {
+
+        // PREPARE
+        Resource.Factory.Registry.INSTANCE.getExtensionToFactoryMap().put("ecore", new XMIResourceFactoryImpl());
+        final File modelDir = new File(dir, "model").getCanonicalFile();
+        modelDir.mkdirs();
+        AbstractEMFParserTest.writeModel(modelDir, 2);
+        final URI referenced = URI.createFileURI(new File(modelDir, "pkg0.ecore").getPath());
+        final URI dependent = URI.createFileURI(new File(modelDir, "pkg1.ecore").getPath());
+        final ResourceSet resourceSet = new ResourceSetImpl();
+        resourceSet.getResource(referenced, true);
+        final File cacheDir = new File(dir, "cache");
+        final BinaryResourceCache testee = new BinaryResourceCache(cacheDir, 1024 * 1024, "1");
+        testee.store(resourceSet.getResource(dependent, true));
+        assertThat(testee.load(dependent)).isNotNull();
+
+        // TEST
+        final Resource changed = new ResourceSetImpl().getResource(referenced, true);
+        final EPackage pkg = (EPackage) changed.getContents().get(0);
+        final EClass first = EcoreFactory.eINSTANCE.createEClass();
+        first.setName("First");
+        pkg.getEClassifiers().add(0, first);
+        changed.save(Collections.emptyMap());
+        testee.forget(referenced);
+
+        // VERIFY
+        assertThat(testee.load(dependent)).isNull();
+        assertThat(new BinaryResourceCache(cacheDir, 1024 * 1024, "1").load(dependent)).isNull();
+
+    }
+
+    @Test
+    void testVersionChanged(@TempDir final File dir) throws Exception {
+
+        // PREPARE
+        final File modelFile = new File(dir, "model.txt");
+        FileUtils.write(modelFile, "annotation", StandardCharsets.UTF_8);
+        final URI uri = URI.createFileURI(modelFile.getCanonicalPath());
+        final File cacheDir = new File(dir, "cache");
+        new BinaryResourceCache(cacheDir, 1024 * 1024, "1").store(resource(uri, "annotation"));
+
+        // TEST
+        final BinaryResourceCache testee = new BinaryResourceCache(cacheDir, 1024 * 1024, "2");
+
+        // VERIFY
+        assertThat(testee.load(uri)).isNull();
+        assertThat(new BinaryResourceCache(cacheDir, 1024 * 1024, "1").load(uri)).isNotNull();
+
+    }
+
+    private static Resource resource(final URI uri, final String source) {
+        final Resource resource = new ResourceImpl(uri);
+        final EAnnotation annotation = EcoreFactory.eINSTANCE.createEAnnotation();
+        annotation.setSource(source);
+        resource.getContents().add(annotation);
+        return resource;
+    }
+
+    // CHECKSTYLE:ON
+
+}
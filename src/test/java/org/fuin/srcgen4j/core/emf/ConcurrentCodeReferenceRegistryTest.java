@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.emf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.stream.IntStream;
+
+import org.fuin.objects4j.common.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link ConcurrentCodeReferenceRegistry}.
+ */
+class ConcurrentCodeReferenceRegistryTest {
+
+    // CHECKSTYLE:OFF
+
+    @Test
+    void testPutAndFreeze() {
+
+        final ConcurrentCodeReferenceRegistry testee = new ConcurrentCodeReferenceRegistry();
+        IntStream.range(0, 1000).parallel().forEach(i -> testee.putReference("name" + i, "a.b.C" + i));
+
+        // TEST
+        testee.freeze();
+
+        // VERIFY
+        assertThat(testee.isFrozen()).isTrue();
+        assertThat(testee.getReference("name0")).isEqualTo("a.b.C0");
+        assertThat(testee.getReference("name999")).isEqualTo("a.b.C999");
+        assertThat(testee.getReference("unknown")).isNull();
+        assertThatThrownBy(() -> testee.putReference("x", "a.b.X")).isInstanceOf(IllegalStateException.class);
+
+    }
+
+    @Test
+    void testNullFqnSameContractAsSimpleRegistry() {
+
+        final CodeReferenceRegistry simple = new SimpleCodeReferenceRegistry();
+        final CodeReferenceRegistry concurrent = new ConcurrentCodeReferenceRegistry();
+
+        for (final CodeReferenceRegistry testee : new CodeReferenceRegistry[] { simple, concurrent }) {
+
+            // TEST
+            testee.putReference("name1", "a.b.C1");
+            testee.putReference("name1", null);
+            testee.putReference("name2", null);
+
+            // VERIFY
+            assertThat(testee.getReference("name1")).isNull();
+            assertThat(testee.getReference("name2")).isNull();
+            assertThat(new SimpleCodeSnippetContext(testee).getReference("name1")).isEqualTo("name1");
+            assertThatThrownBy(() -> testee.putReference(null, "a.b.C1")).isInstanceOf(ConstraintViolationException.class);
+
+        }
+
+    }
+
+    @Test
+    void testSnippetContext() {
+
+        final ConcurrentCodeReferenceRegistry refReg = new ConcurrentCodeReferenceRegistry();
+        refReg.putReference("name1", "a.b.C1");
+        refReg.freeze();
+        final ConcurrentCodeSnippetContext testee = new ConcurrentCodeSnippetContext(refReg);
+
+        // TEST
+        IntStream.range(0, 100).parallel().forEach(i -> {
+            testee.requiresReference("name1");
+            testee.requiresImport("x.y.Z");
+        });
+        testee.requiresReference("name2");
+
+        // VERIFY
+        assertThat(testee.getImports()).containsExactly("a.b.C1", "name2", "x.y.Z");
+
+    }
+
+    // CHECKSTYLE:ON
+
+}
@@ -21,11 +21,14 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.xml.bind.JAXBContext;
 
 import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.fuin.srcgen4j.commons.DefaultContext;
+import org.fuin.srcgen4j.commons.GenerateException;
 import org.fuin.srcgen4j.commons.GeneratorConfig;
 import org.fuin.srcgen4j.commons.ParseException;
 import org.fuin.srcgen4j.commons.ParserConfig;
@@ -94,6 +97,113 @@ class EMFGeneratorTest {
 
     }
 
+    @Test
+    void testGenerateParallel() throws Exception {
+
+        Handler.add();
+
+        final DefaultContext context = new DefaultContext();
+        final File dir = new File("src/test/resources/domain");
+        final File file = new File(dir, "xtext-test-config.xml");
+
+        final JAXBContext jaxbContext = JAXBContext.newInstance(SrcGen4JConfig.class, XtextParserConfig.class, EMFGeneratorConfig.class);
+        final SrcGen4JConfig srcGen4JConfig = JaxbUtils
+                .unmarshal(
+                        new UnmarshallerBuilder()
+                                .withContext(jaxbContext).addClasspathSchemas("/srcgen4j-commons-0_4_3.xsd",
+                                        "/srcgen4j-core-base-0_4_3.xsd", "/srcgen4j-core-emf-0_4_3.xsd", "/srcgen4j-core-xtext-0_4_3.xsd")
+                                .build(),
+                        file);
+        srcGen4JConfig.init(context, new File("."));
+        final GeneratorConfig generatorConfig = srcGen4JConfig.getGenerators().findByName("gen1");
+        final ParserConfig parserConfig = srcGen4JConfig.getParsers().getList().get(0);
+
+        final XtextParser parser = new XtextParser();
+        parser.initialize(context, parserConfig);
+        final ResourceSet resourceSet = parser.parse();
+
+        final EMFGenerator testee = new EMFGenerator();
+        testee.initialize(generatorConfig);
+        testee.getSpecificConfig().setThreads(4);
+        AbstractHelloTstGen.THREADS.clear();
+
+        // TEST
+        testee.generate(resourceSet, false);
+
+        // VERIFY
+        assertThat(AbstractHelloTstGen.THREADS.size()).isGreaterThan(1);
+        assertThat(AbstractHelloTstGen.THREADS).allMatch(name -> name.startsWith("gen1-"));
+        assertThat(new File("target/xtest-test/a/b/c/AbstractHelloUniverse.java"))
+                .hasSameTextualContentAs(new File("src/test/resources/AbstractHelloUniverse.java"));
+        assertThat(new File("target/xtest-test/a/b/c/HelloUniverse.java"))
+                .hasSameTextualContentAs(new File("src/test/resources/HelloUniverse.java"));
+        assertThat(new File("target/xtest-test/a/b/c/AbstractHelloWorld.java"))
+                .hasSameTextualContentAs(new File("src/test/resources/AbstractHelloWorld.java"));
+        assertThat(new File("target/xtest-test/a/b/c/HelloWorld.java"))
+                .hasSameTextualContentAs(new File("src/test/resources/HelloWorld.java"));
+
+    }
+
+    @Test
+    void testGenerateParallelError() throws Exception {
+
+        Handler.add();
+
+        final DefaultContext context = new DefaultContext();
+        final File dir = new File("src/test/resources/domain");
+        final File file = new File(dir, "xtext-fail-config.xml");
+
+        final JAXBContext jaxbContext = JAXBContext.newInstance(SrcGen4JConfig.class, XtextParserConfig.class, EMFGeneratorConfig.class);
+        final SrcGen4JConfig srcGen4JConfig = JaxbUtils
+                .unmarshal(
+                        new UnmarshallerBuilder()
+                                .withContext(jaxbContext).addClasspathSchemas("/srcgen4j-commons-0_4_3.xsd",
+                                        "/srcgen4j-core-base-0_4_3.xsd", "/srcgen4j-core-emf-0_4_3.xsd", "/srcgen4j-core-xtext-0_4_3.xsd")
+                                .build(),
+                        file);
+        srcGen4JConfig.init(context, new File("."));
+        final GeneratorConfig generatorConfig = srcGen4JConfig.getGenerators().findByName("genFail");
+        final ParserConfig parserConfig = srcGen4JConfig.getParsers().getList().get(0);
+
+        final XtextParser parser = new XtextParser();
+        parser.initialize(context, parserConfig);
+        final ResourceSet resourceSet = parser.parse();
+
+        final EMFGenerator testee = new EMFGenerator();
+        testee.initialize(generatorConfig);
+        FailingHelloTstGen.CALLS.set(0);
+
+        // TEST
+        try {
+            testee.generate(resourceSet, false);
+            fail();
+        } catch (final GenerateException ex) {
+            assertThat(ex.getMessage()).startsWith("Failed on purpose");
+        }
+
+        // VERIFY
+        final long end = System.currentTimeMillis() + 5000;
+        while (!workers("genFail-").isEmpty() && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertThat(workers("genFail-")).isEmpty();
+
+        // A following run must not see any state of the failed one
+        testee.generate(resourceSet, false);
+        assertThat(new File("target/xtest-fail/a/b/c/FailingWorld.txt")).exists();
+
+    }
+
+    private static List<Thread> workers(final String prefix) {
+        final List<Thread> threads = new ArrayList<>();
+        for (final Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith(prefix) && thread.isAlive()) {
+                threads.add(thread);
+            }
+        }
+        return threads;
+    }
+
     @Test
     void testParseError() throws Exception {
 
@@ -0,0 +1,53 @@
+// CHECKSTYLE:OFF Test class
+package org.fuin.srcgen4j.core.emf;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.validation.constraints.NotNull;
+
+import org.fuin.srcgen4j.commons.ArtifactFactory;
+import org.fuin.srcgen4j.commons.ArtifactFactoryConfig;
+import org.fuin.srcgen4j.commons.GenerateException;
+import org.fuin.srcgen4j.commons.GeneratedArtifact;
+import org.fuin.xsample.xSampleDsl.Greeting;
+
+/**
+ * Fails on the second greeting of a real run - The first one is already handed over to the write thread.
+ */
+public final class FailingHelloTstGen implements ArtifactFactory<Greeting> {
+
+    /** Number of calls in a real run. */
+    public static final AtomicInteger CALLS = new AtomicInteger();
+
+    private String artifact;
+
+    @Override
+    public final Class<? extends Greeting> getModelType() {
+        return Greeting.class;
+    }
+
+    @Override
+    public final void init(final ArtifactFactoryConfig config) {
+        this.artifact = config.getArtifact();
+    }
+
+    @Override
+    public final boolean isIncremental() {
+        return true;
+    }
+
+    @Override
+    public final List<GeneratedArtifact> create(@NotNull final Greeting greeting, @NotNull final Map<String, Object> context,
+            final boolean preparationRun) throws GenerateException {
+        if (!preparationRun && CALLS.incrementAndGet() == 2) {
+            throw new GenerateException("Failed on purpose: " + greeting.getName());
+        }
+        return Collections.singletonList(
+                new GeneratedArtifact(artifact, "a/b/c/Failing" + greeting.getName() + ".txt", greeting.getName().getBytes()));
+    }
+
+}
+// CHECKSTYLE:ON
@@ -0,0 +1,105 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.emf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link FqnTable}.
+ */
+class FqnTableTest {
+
+    // CHECKSTYLE:OFF
+
+    @Test
+    void testIdIsStableAcrossThreads() {
+
+        final FqnTable testee = new FqnTable();
+
+        // TEST
+        IntStream.range(0, 10000).parallel().forEach(i -> testee.id("a.b.C" + (i % 1000)));
+
+        // VERIFY
+        assertThat(testee.size()).isEqualTo(1000);
+        for (int i = 0; i < 1000; i++) {
+            final String fqn = "a.b.C" + i;
+            assertThat(testee.name(testee.id(fqn))).isEqualTo(fqn);
+        }
+        assertThat(testee.intern(new String("a.b.C1"))).isSameAs(testee.intern("a.b.C1"));
+
+    }
+
+    @Test
+    void testSnippetContextsShareNames() {
+
+        final SimpleCodeReferenceRegistry refReg = new SimpleCodeReferenceRegistry();
+        refReg.putReference("name1", "a.b.C1");
+        final SimpleCodeSnippetContext ctx1 = new SimpleCodeSnippetContext(refReg);
+        final SimpleCodeSnippetContext ctx2 = new SimpleCodeSnippetContext(refReg);
+
+        // TEST
+        ctx1.requiresImport("x.y.Z");
+        ctx1.requiresReference("name1");
+        ctx2.requiresReference("name1");
+        ctx2.requiresImport("a.a.A");
+
+        // VERIFY
+        assertThat(ctx1.getImports()).containsExactly("a.b.C1", "x.y.Z");
+        assertThat(ctx2.getImports()).containsExactly("a.a.A", "a.b.C1");
+        assertThat(refReg.getFqnTable().size()).isEqualTo(3);
+
+    }
+
+    @Test
+    void testSnippetContextWithoutTable() {
+
+        final CodeReferenceRegistry refReg = new CodeReferenceRegistry() {
+            @Override
+            public String getReference(final String uniqueName) {
+                return "name1".equals(uniqueName) ? "a.b.C1" : null;
+            }
+
+            @Override
+            public void putReference(final String uniqueName, final String fqn) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        final SimpleCodeSnippetContext ctx1 = new SimpleCodeSnippetContext(refReg);
+        final ConcurrentCodeSnippetContext ctx2 = new ConcurrentCodeSnippetContext(refReg);
+
+        // TEST
+        ctx1.requiresImport("x.y.Z");
+        ctx1.requiresReference("name1");
+        ctx1.requiresImport("x.y.Z");
+        ctx2.requiresReference("name1");
+        ctx2.requiresImport("a.a.A");
+
+        // VERIFY
+        assertThat(refReg.getFqnTable()).isNull();
+        assertThat(ctx1.getImports()).containsExactly("a.b.C1", "x.y.Z");
+        assertThat(ctx2.getImports()).containsExactly("a.a.A", "a.b.C1");
+
+    }
+
+    // CHECKSTYLE:ON
+
+}
@@ -18,8 +18,14 @@
 package org.fuin.srcgen4j.core.velocity;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.commons.io.FileUtils;
 import org.fuin.srcgen4j.commons.DefaultContext;
@@ -70,5 +76,72 @@ class ParameterizedTemplateGeneratorTest {
 
     }
 
+    @Test
+    void testIntegrationParallel() throws Exception {
+
+        // PREPARE
+        final File configFile = new File(TEST_RES_DIR + "/velocity-parallel-test-config.xml");
+        final SrcGen4JConfig config = PTGenHelper.createAndInit(new DefaultContext(), configFile);
+        final SrcGen4J testee = new SrcGen4J(config, new DefaultContext());
+
+        // EXECUTE
+        testee.execute();
+
+        // VERIFY
+        final String targetDir = TARGET_DIR + "-parallel";
+        assertThat(FileUtils.contentEquals(new File(targetDir, "a/A.java"), new File(TEST_RES_DIR + "/A.java"))).isTrue();
+        assertThat(FileUtils.contentEquals(new File(targetDir, "b/B.java"), new File(TEST_RES_DIR + "/B.java"))).isTrue();
+        assertThat(FileUtils.contentEquals(new File(targetDir, "a/A2.java"), new File(TEST_RES_DIR + "/A2.java"))).isTrue();
+        assertThat(FileUtils.contentEquals(new File(targetDir, "b/B2.java"), new File(TEST_RES_DIR + "/B2.java"))).isTrue();
+        assertThat(new File(targetDir, "profile.folded")).exists();
+
+    }
+
+    @Test
+    void testParallelCreatesNestedDirectories() throws Exception {
+
+        // PREPARE
+        final File targetDir = new File(TARGET_DIR + "-render-dirs");
+        FileUtils.deleteDirectory(targetDir);
+        final File configFile = new File(TEST_RES_DIR + "/velocity-render-dirs-config.xml");
+        final SrcGen4JConfig config = PTGenHelper.createAndInit(new DefaultContext(), configFile);
+        final SrcGen4J testee = new SrcGen4J(config, new DefaultContext());
+
+        // EXECUTE
+        testee.execute();
+
+        // VERIFY
+        final List<String> javaFiles;
+        try (final Stream<Path> paths = Files.walk(targetDir.toPath())) {
+            javaFiles = paths.map(Path::toString).filter(name -> name.endsWith(".java")).collect(Collectors.toList());
+        }
+        assertThat(javaFiles).hasSize(400);
+        assertThat(new File(targetDir, "d39/sub0/N39.java")).exists();
+
+    }
+
+    @Test
+    void testFailFastLeavesNoTemporaryFiles() throws Exception {
+
+        // PREPARE
+        final File targetDir = new File(TARGET_DIR + "-render-fail");
+        FileUtils.deleteDirectory(targetDir);
+        final File configFile = new File(TEST_RES_DIR + "/velocity-render-fail-config.xml");
+        final SrcGen4JConfig config = PTGenHelper.createAndInit(new DefaultContext(), configFile);
+        final SrcGen4J testee = new SrcGen4J(config, new DefaultContext());
+
+        // EXECUTE
+        assertThatThrownBy(() -> testee.execute()).isNotNull();
+
+        // VERIFY
+        final List<String> tmpFiles;
+        try (final Stream<Path> paths = Files.walk(targetDir.toPath())) {
+            tmpFiles = paths.map(Path::toString).filter(name -> name.endsWith(".tmp")).collect(Collectors.toList());
+        }
+        assertThat(tmpFiles).isEmpty();
+        assertThat(new File(targetDir, "p/F20.java")).doesNotExist();
+
+    }
+
 }
 // CHECKSTYLE:ON
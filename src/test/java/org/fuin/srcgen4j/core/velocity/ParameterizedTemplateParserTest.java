@@ -0,0 +1,170 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.velocity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.commons.io.FileUtils;
+import org.fuin.srcgen4j.commons.DefaultContext;
+import org.fuin.srcgen4j.commons.ParseException;
+import org.fuin.srcgen4j.commons.SrcGen4JConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// CHECKSTYLE:OFF
+class ParameterizedTemplateParserTest {
+
+    private static final String TEST_RES_DIR = "src/test/resources";
+
+    @Test
+    void testRefresh(@TempDir final File dir) throws Exception {
+
+        // PREPARE
+        final File modelDir = new File(dir, "models");
+        final File model1 = new File(modelDir, "parameterized-template-1.ptg.xml");
+        final File model2 = new File(modelDir, "parameterized-template-2.ptg.xml");
+        FileUtils.copyFile(new File(TEST_RES_DIR, model1.getName()), model1);
+        final ParameterizedTemplateParser testee = createParser(dir, modelDir);
+        assertThat(testee.parse().getModelList()).hasSize(1);
+        final long generation = testee.getGeneration();
+
+        // EXECUTE
+        FileUtils.copyFile(new File(TEST_RES_DIR, model2.getName()), model2);
+        final ParameterizedTemplateModels added = testee.refresh(Collections.singleton(model2));
+
+        // VERIFY
+        assertThat(added).isSameAs(testee.parse());
+        assertThat(added.getModelList()).hasSize(2);
+        assertThat(added.getModelList().get(1).getFile()).isEqualTo(model2);
+        assertThat(testee.getGeneration()).isGreaterThan(generation);
+
+        // EXECUTE
+        FileUtils.forceDelete(model1);
+        final ParameterizedTemplateModels removed = testee.refresh(Collections.singleton(model1));
+
+        // VERIFY
+        assertThat(removed.getModelList()).hasSize(1);
+        assertThat(removed.getModelList().get(0).getFile()).isEqualTo(model2);
+
+        // EXECUTE
+        final long unchanged = testee.getGeneration();
+        testee.refresh(Collections.singleton(new File(modelDir, "other.txt")));
+
+        // VERIFY
+        assertThat(testee.getGeneration()).isEqualTo(unchanged);
+
+    }
+
+    @Test
+    void testIncrementalParseReusesRefreshedModel(@TempDir final File dir) throws Exception {
+
+        // PREPARE
+        final File modelDir = new File(dir, "models");
+        final File model1 = new File(modelDir, "parameterized-template-1.ptg.xml");
+        final File model2 = new File(modelDir, "parameterized-template-2.ptg.xml");
+        FileUtils.copyFile(new File(TEST_RES_DIR, model1.getName()), model1);
+        final ParameterizedTemplateParser testee = createParser(dir, modelDir);
+        testee.parse();
+        FileUtils.copyFile(new File(TEST_RES_DIR, model2.getName()), model2);
+
+        // EXECUTE
+        final ParameterizedTemplateModels incremental = testee.parse(Collections.singleton(model2));
+
+        // VERIFY
+        assertThat(incremental.getModelList()).hasSize(1);
+        assertThat(testee.parse().getModelList()).hasSize(2);
+        // The model was read only once for both the cached full parse and the incremental result
+        assertThat(incremental.getModelList().get(0)).isSameAs(testee.parse().getModelList().get(1));
+
+    }
+
+    @Test
+    void testParseParallelSameOrderAsSequential(@TempDir final File dir) throws Exception {
+
+        // PREPARE
+        final File modelDir = new File(dir, "models");
+        for (final String name : new String[] { "m", "b/z", "a", "z", "b/a", "c" }) {
+            FileUtils.copyFile(new File(TEST_RES_DIR, "parameterized-template-1.ptg.xml"), new File(modelDir, name + ".ptg.xml"));
+        }
+
+        // EXECUTE
+        final List<File> sequential = files(createParser(new File(dir, "seq"), modelDir, 1).parse());
+        final List<File> parallel = files(createParser(new File(dir, "par"), modelDir, 4).parse());
+
+        // VERIFY
+        assertThat(sequential).hasSize(6);
+        assertThat(parallel).isEqualTo(sequential);
+        assertThat(sequential).isSorted();
+
+    }
+
+    @Test
+    void testParseParallelErrorHasCause(@TempDir final File dir) throws Exception {
+
+        // PREPARE
+        final File modelDir = new File(dir, "models");
+        FileUtils.copyFile(new File(TEST_RES_DIR, "parameterized-template-1.ptg.xml"), new File(modelDir, "ok.ptg.xml"));
+        FileUtils.write(new File(modelDir, "broken1.ptg.xml"), "<broken", StandardCharsets.UTF_8);
+        FileUtils.write(new File(modelDir, "broken2.ptg.xml"), "<broken", StandardCharsets.UTF_8);
+        final ParameterizedTemplateParser testee = createParser(dir, modelDir, 4);
+
+        // EXECUTE + VERIFY
+        assertThatThrownBy(testee::parse).isInstanceOf(ParseException.class).hasMessageStartingWith("Error reading 2 of 3 model file(s)")
+                .satisfies(ex -> {
+                    assertThat(ex.getCause()).isNotNull();
+                    assertThat(ex.getSuppressed()).hasSize(1);
+                });
+
+    }
+
+    private static List<File> files(final ParameterizedTemplateModels models) {
+        return models.getModelList().stream().map(ParameterizedTemplateModel::getFile).collect(Collectors.toList());
+    }
+
+    private static ParameterizedTemplateParser createParser(final File dir, final File modelDir) throws Exception {
+        return createParser(dir, modelDir, null);
+    }
+
+    private static ParameterizedTemplateParser createParser(final File dir, final File modelDir, final Integer threads)
+            throws Exception {
+        final String threadsAttr = threads == null ? "" : " threads=\"" + threads + "\"";
+        dir.mkdirs();
+        final File configFile = new File(dir, "config.xml");
+        FileUtils.write(configFile, "<srcgen4j-config xmlns=\"http://www.fuin.org/srcgen4j/commons/0.4.3\""
+                + " xmlns:velo=\"http://www.fuin.org/srcgen4j/core/velocity/0.4.3\">" + "<parsers>"
+                + "<parser name=\"ptp\" class=\"org.fuin.srcgen4j.core.velocity.ParameterizedTemplateParser\"><config>"
+                + "<velo:parameterized-template-parser modelPath=\"" + modelDir.getPath() + "\" modelFilter=\".*\\.ptg\\.xml\""
+                + " templatePath=\"" + new File(TEST_RES_DIR).getAbsolutePath() + "\" templateFilter=\".*\\.ptg\\.java\""
+                + threadsAttr + " />"
+                + "</config></parser>" + "</parsers>" + "</srcgen4j-config>", StandardCharsets.UTF_8);
+        final DefaultContext context = new DefaultContext();
+        final SrcGen4JConfig config = PTGenHelper.createAndInit(context, configFile);
+        final ParameterizedTemplateParser parser = new ParameterizedTemplateParser();
+        parser.initialize(context, config.getParsers().getList().get(0));
+        return parser;
+    }
+
+}
+// CHECKSTYLE:ON
@@ -19,8 +19,15 @@ package org.fuin.srcgen4j.core.velocity;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.File;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import javax.xml.bind.JAXBContext;
 
@@ -30,6 +37,7 @@ import org.fuin.utils4j.jaxb.UnmarshallerBuilder;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class ParameterizedTemplateTest {
 
@@ -112,6 +120,73 @@ class ParameterizedTemplateTest {
 
     }
 
+    @Test
+    void testStreamTargetFiles() throws Exception {
+
+        // PREPARE
+        final TargetFileListProducerConfig tflProducerCfg = new TargetFileListProducerConfig();
+        tflProducerCfg.setClassName(TestStreamingTargetFileProducer.class.getName());
+        final ParameterizedTemplateModel testee = new ParameterizedTemplateModel("my-template", tflProducerCfg);
+
+        // EXECUTE
+        final List<TargetFile> streamed;
+        try (final Stream<TargetFile> stream = testee.streamTargetFiles()) {
+            streamed = stream.collect(Collectors.toList());
+        }
+        final List<TargetFile> listed = testee.createTargetFileList();
+
+        // VERIFY
+        assertThat(streamed).hasSize(3);
+        assertThat(streamed.get(2).getName()).isEqualTo("Name2.java");
+        assertThat(listed).isEqualTo(streamed);
+        assertThat(new TestTargetFileProducer().streamTargetFiles()).containsExactly(targetFile1);
+        assertThat(new ParameterizedTemplateModel("my-template", targetFile1).streamTargetFiles()).containsExactly(targetFile1);
+
+    }
+
+    @Test
+    void testCacheFileRelativeToModelFile(@TempDir final File tempDir) throws Exception {
+
+        // PREPARE
+        final TargetFileListProducerConfig tflProducerCfg = new TargetFileListProducerConfig();
+        tflProducerCfg.setClassName(TestTargetFileProducer.class.getName());
+        tflProducerCfg.setCacheFile("${cacheDir}/tfl.ser");
+        final ParameterizedTemplateModel testee = new ParameterizedTemplateModel("my-template", tflProducerCfg);
+        testee.setFile(new File(tempDir, "models/a.ptg.xml"));
+        final Map<String, String> vars = new HashMap<>();
+        vars.put("cacheDir", "cache");
+
+        // EXECUTE
+        tflProducerCfg.init(null, testee, vars);
+
+        // VERIFY
+        assertThat(tflProducerCfg.getCacheFileAsFile()).isEqualTo(new File(tempDir, "models/cache/tfl.ser").getCanonicalFile());
+        final File absolute = new File(tempDir, "other/tfl.ser").getCanonicalFile();
+        tflProducerCfg.setCacheFile(absolute.getPath());
+        assertThat(tflProducerCfg.getCacheFileAsFile()).isEqualTo(absolute);
+
+    }
+
+    @Test
+    void testProducerCannotOverrideNeitherMethod() throws Exception {
+
+        // A producer that implements neither method must not compile instead of recursing endlessly at runtime
+        assertThat(Modifier.isAbstract(TargetFileListProducer.class.getMethod("createTargetFiles").getModifiers())).isTrue();
+        assertThat(TargetFileListProducer.class.getMethod("streamTargetFiles").isDefault()).isTrue();
+        assertThat(Modifier.isAbstract(StreamingTargetFileListProducer.class.getMethod("streamTargetFiles").getModifiers())).isTrue();
+        assertThat(StreamingTargetFileListProducer.class.getMethod("createTargetFiles").isDefault()).isTrue();
+
+    }
+
+    public static final class TestStreamingTargetFileProducer implements StreamingTargetFileListProducer {
+
+        @Override
+        public final Stream<TargetFile> streamTargetFiles() {
+            return IntStream.range(0, 3).mapToObj(i -> new TargetFile("path", "Name" + i + ".java", new Argument("name", "Name" + i)));
+        }
+
+    }
+
     public static final class TestTargetFileProducer implements TargetFileListProducer {
 
         @Override
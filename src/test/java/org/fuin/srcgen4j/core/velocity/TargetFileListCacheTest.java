@@ -0,0 +1,163 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.velocity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// CHECKSTYLE:OFF
+class TargetFileListCacheTest {
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    void testReuseWhileFingerprintUnchanged() {
+
+        // PREPARE
+        final File cacheFile = new File(tempDir, "cache/target-files.ser");
+        final AtomicInteger calls = new AtomicInteger();
+        final Supplier<Stream<TargetFile>> producer = () -> {
+            calls.incrementAndGet();
+            return IntStream.range(0, 2500).mapToObj(i -> new TargetFile("p" + (i % 10), "F" + i + ".java", new Argument("name", "F" + i)));
+        };
+
+        // EXECUTE
+        final List<TargetFile> first = read(cacheFile, "fp1", producer);
+        final List<TargetFile> second = read(cacheFile, "fp1", producer);
+
+        // VERIFY
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(cacheFile).exists();
+        assertThat(new File(cacheFile + ".tmp")).doesNotExist();
+        assertThat(first).hasSize(2500);
+        assertThat(second).isEqualTo(first);
+        assertThat(second.get(2499).getArguments()).containsExactly(new Argument("name", "F2499"));
+
+        // EXECUTE
+        final List<TargetFile> third = read(cacheFile, "fp2", producer);
+
+        // VERIFY
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(third).isEqualTo(first);
+
+    }
+
+    @Test
+    void testPartiallyConsumedIsNotCached() {
+
+        // PREPARE
+        final File cacheFile = new File(tempDir, "target-files.ser");
+        final AtomicInteger calls = new AtomicInteger();
+        final Supplier<Stream<TargetFile>> producer = () -> {
+            calls.incrementAndGet();
+            return Stream.of(new TargetFile("a", "A.java"), new TargetFile("b", "B.java"));
+        };
+
+        // EXECUTE
+        try (final Stream<TargetFile> stream = TargetFileListCache.stream(cacheFile, "fp", producer)) {
+            assertThat(stream.iterator().next().getName()).isEqualTo("A.java");
+        }
+
+        // VERIFY
+        assertThat(cacheFile).doesNotExist();
+        assertThat(new File(cacheFile + ".tmp")).doesNotExist();
+        assertThat(read(cacheFile, "fp", producer)).hasSize(2);
+        assertThat(calls.get()).isEqualTo(2);
+
+    }
+
+    @Test
+    void testTruncatedFileIsReplaced() throws IOException {
+
+        // PREPARE
+        final File cacheFile = new File(tempDir, "target-files.ser");
+        final AtomicInteger calls = new AtomicInteger();
+        final Supplier<Stream<TargetFile>> producer = () -> {
+            calls.incrementAndGet();
+            return IntStream.range(0, 100).mapToObj(i -> new TargetFile("p", "F" + i + ".java"));
+        };
+        final List<TargetFile> first = read(cacheFile, "fp", producer);
+        try (final RandomAccessFile raf = new RandomAccessFile(cacheFile, "rw")) {
+            raf.setLength(raf.length() / 2);
+        }
+
+        // EXECUTE
+        final List<TargetFile> second = read(cacheFile, "fp", producer);
+
+        // VERIFY
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(second).isEqualTo(first);
+
+        // EXECUTE
+        final List<TargetFile> third = read(cacheFile, "fp", producer);
+
+        // VERIFY
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(third).isEqualTo(first);
+
+    }
+
+    @Test
+    void testCorruptFileIsReplaced() throws IOException {
+
+        // PREPARE
+        final File cacheFile = new File(tempDir, "target-files.ser");
+        final AtomicInteger calls = new AtomicInteger();
+        final Supplier<Stream<TargetFile>> producer = () -> {
+            calls.incrementAndGet();
+            return Stream.of(new TargetFile("a", "A.java"), new TargetFile("b", "B.java"));
+        };
+        final List<TargetFile> first = read(cacheFile, "fp", producer);
+        try (final RandomAccessFile raf = new RandomAccessFile(cacheFile, "rw")) {
+            // Invalid type code instead of the first target file (Stream header, version and fingerprint use 14 bytes)
+            raf.seek(14);
+            raf.write(0x7F);
+        }
+
+        // EXECUTE
+        final List<TargetFile> second = read(cacheFile, "fp", producer);
+
+        // VERIFY
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(second).isEqualTo(first);
+        assertThat(read(cacheFile, "fp", producer)).isEqualTo(first);
+        assertThat(calls.get()).isEqualTo(2);
+
+    }
+
+    private static List<TargetFile> read(final File cacheFile, final String fingerprint, final Supplier<Stream<TargetFile>> producer) {
+        try (final Stream<TargetFile> stream = TargetFileListCache.stream(cacheFile, fingerprint, producer)) {
+            return stream.collect(Collectors.toList());
+        }
+    }
+
+}
+// CHECKSTYLE:ON
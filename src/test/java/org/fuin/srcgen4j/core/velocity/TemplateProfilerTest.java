@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.velocity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+import org.apache.velocity.Template;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.app.VelocityEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// CHECKSTYLE:OFF
+class TemplateProfilerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testNestedTemplates() throws Exception {
+
+        // PREPARE
+        final TemplateProfiler testee = new TemplateProfiler();
+
+        // EXECUTE
+        for (int i = 0; i < 3; i++) {
+            testee.enter("a.vm");
+            assertThat(TemplateProfiler.current()).isSameAs(testee);
+            testee.enter("inc.vm");
+            Thread.sleep(2);
+            testee.exit(-1);
+            testee.exit(100);
+        }
+        testee.enter("b.vm");
+        testee.exit(10);
+
+        // VERIFY
+        assertThat(TemplateProfiler.current()).isNull();
+
+        final String table = testee.toTable(2);
+        final String[] lines = table.split("\\R");
+        assertThat(lines).hasSize(4);
+        assertThat(lines[1]).startsWith("         3 ").endsWith("  a.vm").contains(" 300 ");
+        assertThat(lines[2]).startsWith("         3 ").endsWith("  inc.vm").contains(" - ");
+        assertThat(lines[3]).isEqualTo("... 1 more template(s)");
+
+        final File file = tempDir.resolve("profile.folded").toFile();
+        testee.writeFolded(file);
+        final List<String> folded = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertThat(folded).hasSize(3);
+        assertThat(folded.get(0)).startsWith("a.vm ");
+        assertThat(folded.get(1)).startsWith("a.vm;inc.vm ");
+        assertThat(folded.get(2)).startsWith("b.vm ");
+        assertThat(Long.parseLong(folded.get(1).substring("a.vm;inc.vm ".length()))).isGreaterThanOrEqualTo(6000);
+
+    }
+
+    @Test
+    void testParseArgumentEvaluatedOnce() throws Exception {
+
+        // PREPARE
+        final File dir = tempDir.resolve("templates").toFile();
+        Files.createDirectories(dir.toPath());
+        Files.write(new File(dir, "a.vm").toPath(), "#parse('inc.vm')#parse($names.poll())".getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(dir, "inc.vm").toPath(), "inc".getBytes(StandardCharsets.UTF_8));
+        final VelocityEngine ve = VelocityEngineCache.get(dir, 0, true);
+        final Template template = ve.getTemplate("a.vm");
+        final Deque<String> names = new ArrayDeque<>(Arrays.asList("inc.vm", "inc.vm"));
+        final VelocityContext context = new VelocityContext();
+        context.put("names", names);
+        final TemplateProfiler testee = new TemplateProfiler();
+        final StringWriter writer = new StringWriter();
+
+        // EXECUTE
+        testee.enter("a.vm");
+        try {
+            template.merge(context, writer);
+        } finally {
+            testee.exit(-1);
+        }
+
+        // VERIFY
+        assertThat(writer.toString()).isEqualTo("incinc");
+        assertThat(names).hasSize(1);
+        final File file = tempDir.resolve("new/dir/profile.folded").toFile();
+        testee.writeFolded(file);
+        final List<String> folded = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertThat(folded).anyMatch(line -> line.startsWith("a.vm;inc.vm "));
+        assertThat(folded).anyMatch(line -> line.startsWith("a.vm;#parse(<dynamic>) "));
+
+    }
+
+}
+// CHECKSTYLE:ON
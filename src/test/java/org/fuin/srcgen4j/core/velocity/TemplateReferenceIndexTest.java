@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.velocity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// CHECKSTYLE:OFF
+class TemplateReferenceIndexTest {
+
+    @Test
+    void testFindReferencesToIncludedTemplate(@TempDir final File dir) throws Exception {
+
+        // PREPARE
+        FileUtils.write(new File(dir, "a.vm"), "#parse(\"common/header.vm\")\nclass A {}", StandardCharsets.UTF_8);
+        FileUtils.write(new File(dir, "b.vm"), "class B {}", StandardCharsets.UTF_8);
+        FileUtils.write(new File(dir, "common/header.vm"), "// Header", StandardCharsets.UTF_8);
+        final ParameterizedTemplateModel modelA = model(dir, "a.xml", "a.vm");
+        final ParameterizedTemplateModel modelB = model(dir, "b.xml", "b.vm");
+        final ParameterizedTemplateModels models = new ParameterizedTemplateModels();
+        models.addParamTemplate(modelA);
+        models.addParamTemplate(modelB);
+        final TemplateReferenceIndex testee = new TemplateReferenceIndex(dir);
+
+        // EXECUTE
+        testee.addAll(models);
+
+        // VERIFY
+        assertThat(testee.findReferencesTo(new File(dir, "a.vm"))).containsExactly(modelA);
+        assertThat(testee.findReferencesTo(new File(dir, "b.vm"))).containsExactly(modelB);
+        assertThat(testee.findReferencesTo(new File(dir, "common/header.vm"))).containsExactly(modelA);
+
+    }
+
+    @Test
+    void testUpdateTemplateAndModel(@TempDir final File dir) throws Exception {
+
+        // PREPARE
+        FileUtils.write(new File(dir, "a.vm"), "class A {}", StandardCharsets.UTF_8);
+        FileUtils.write(new File(dir, "b.vm"), "class B {}", StandardCharsets.UTF_8);
+        FileUtils.write(new File(dir, "c.vm"), "// C", StandardCharsets.UTF_8);
+        final ParameterizedTemplateModel modelA = model(dir, "a.xml", "a.vm");
+        final TemplateReferenceIndex testee = new TemplateReferenceIndex(dir);
+        testee.put(modelA);
+        assertThat(testee.findReferencesTo(new File(dir, "c.vm"))).isEmpty();
+
+        // EXECUTE
+        FileUtils.write(new File(dir, "a.vm"), "#include('c.vm')\nclass A {}", StandardCharsets.UTF_8);
+        testee.updateTemplate(new File(dir, "a.vm"));
+        final ParameterizedTemplateModel modelA2 = model(dir, "a.xml", "b.vm");
+        testee.put(modelA2);
+
+        // VERIFY
+        assertThat(testee.findReferencesTo(new File(dir, "a.vm"))).isEmpty();
+        assertThat(testee.findReferencesTo(new File(dir, "b.vm"))).containsExactly(modelA2);
+        testee.remove(new File(dir, "a.xml"));
+        assertThat(testee.findReferencesTo(new File(dir, "b.vm"))).isEmpty();
+
+    }
+
+    private static ParameterizedTemplateModel model(final File dir, final String filename, final String template) {
+        final ParameterizedTemplateModel model = new ParameterizedTemplateModel(template, new TargetFile("x", "X.java"));
+        model.setFile(new File(dir, filename));
+        return model;
+    }
+
+}
+// CHECKSTYLE:ON
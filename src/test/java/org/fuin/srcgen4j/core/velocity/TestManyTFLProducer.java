@@ -0,0 +1,36 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.velocity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//CHECKSTYLE:OFF
+public final class TestManyTFLProducer implements TargetFileListProducer {
+
+    @Override
+    public final List<TargetFile> createTargetFiles() {
+        final List<TargetFile> files = new ArrayList<TargetFile>();
+        for (int i = 0; i < 200; i++) {
+            files.add(new TargetFile("p", "F" + i + ".java", new Argument("name", "F" + i), new Argument("pkg", "p")));
+        }
+        return files;
+    }
+
+}
+// CHECKSTYLE:ON
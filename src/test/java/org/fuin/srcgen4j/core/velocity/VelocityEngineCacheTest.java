@@ -0,0 +1,75 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.velocity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+
+import org.apache.velocity.app.VelocityEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// CHECKSTYLE:OFF
+class VelocityEngineCacheTest {
+
+    @Test
+    void testGetReusesEngine(@TempDir final File dir) {
+
+        // EXECUTE
+        final VelocityEngine first = VelocityEngineCache.get(dir, 2);
+        final VelocityEngine second = VelocityEngineCache.get(dir, 2);
+
+        // VERIFY
+        assertThat(second).isSameAs(first);
+        assertThat(VelocityEngineCache.get(dir, 0)).isNotSameAs(first);
+
+    }
+
+    @Test
+    void testProfilingDirectiveOnlyForProfilingEngines(@TempDir final File dir) {
+
+        // EXECUTE
+        final VelocityEngine standard = VelocityEngineCache.get(dir, 2);
+        final VelocityEngine profiling = VelocityEngineCache.get(dir, 2, true);
+
+        // VERIFY
+        assertThat(profiling).isNotSameAs(standard);
+        assertThat(VelocityEngineCache.get(dir, 2, false)).isSameAs(standard);
+        assertThat(VelocityEngineCache.get(dir, 2, true)).isSameAs(profiling);
+        assertThat(standard.getProperty("runtime.custom_directives")).isNull();
+        assertThat(String.valueOf(profiling.getProperty("runtime.custom_directives"))).contains(ProfilingParse.class.getName());
+
+    }
+
+    @Test
+    void testInvalidate(@TempDir final File dir) {
+
+        // PREPARE
+        final VelocityEngine first = VelocityEngineCache.get(dir, 2);
+
+        // EXECUTE
+        VelocityEngineCache.invalidate(dir);
+
+        // VERIFY
+        assertThat(VelocityEngineCache.get(dir, 2)).isNotSameAs(first);
+
+    }
+
+}
+// CHECKSTYLE:ON
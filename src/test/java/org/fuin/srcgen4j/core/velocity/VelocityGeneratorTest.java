@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.core.velocity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+import org.fuin.srcgen4j.commons.DefaultContext;
+import org.fuin.srcgen4j.commons.GenerateException;
+import org.fuin.srcgen4j.commons.SrcGen4JConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// CHECKSTYLE:OFF
+class VelocityGeneratorTest {
+
+    @TempDir
+    File tempDir;
+
+    @AfterEach
+    void afterEach() {
+        VelocityEngineCache.invalidateAll();
+    }
+
+    @Test
+    void testWarmUpThreads() {
+        final int processors = Runtime.getRuntime().availableProcessors();
+        assertThat(VelocityGenerator.warmUpThreads(null, 1000)).isEqualTo(processors);
+        assertThat(VelocityGenerator.warmUpThreads(0, 1000)).isEqualTo(processors);
+        assertThat(VelocityGenerator.warmUpThreads(3, 1000)).isEqualTo(3);
+        assertThat(VelocityGenerator.warmUpThreads(null, 1)).isEqualTo(1);
+        assertThat(VelocityGenerator.warmUpThreads(4, 0)).isEqualTo(1);
+    }
+
+    @Test
+    void testWarmUpReportsAllBrokenTemplates() throws Exception {
+
+        // PREPARE
+        final File dir = tempDir.getCanonicalFile();
+        final File templateDir = new File(dir, "templates");
+        FileUtils.write(new File(templateDir, "ok.vm"), "public class ${name} {}\n", StandardCharsets.UTF_8);
+        FileUtils.write(new File(templateDir, "broken1.vm"), "#if($name\n", StandardCharsets.UTF_8);
+        FileUtils.write(new File(templateDir, "broken2.vm"), "#foreach($a in\n#end\n", StandardCharsets.UTF_8);
+        final File configFile = new File(dir, "srcgen4j-config.xml");
+        FileUtils.write(configFile, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<srcgen4j-config xmlns=\"http://www.fuin.org/srcgen4j/commons/0.4.3\"\n"
+                + "                 xmlns:velo=\"http://www.fuin.org/srcgen4j/core/velocity/0.4.3\">\n" + "  <projects>\n"
+                + "    <project name=\"test\" path=\"" + dir + "\" maven=\"false\">\n"
+                + "      <folder name=\"out\" path=\"out\" create=\"true\" override=\"true\" clean=\"false\" />\n" + "    </project>\n"
+                + "  </projects>\n" + "  <parsers>\n"
+                + "    <parser name=\"ptp\" class=\"org.fuin.srcgen4j.core.velocity.ParameterizedTemplateParser\">\n"
+                + "      <config><velo:parameterized-template-parser modelPath=\"" + templateDir + "\" templatePath=\"" + templateDir
+                + "\" /></config>\n" + "    </parser>\n" + "  </parsers>\n" + "  <generators>\n"
+                + "    <generator name=\"test\" class=\"org.fuin.srcgen4j.core.velocity.ParameterizedTemplateGenerator\"\n"
+                + "               parser=\"ptp\" project=\"test\" folder=\"out\">\n"
+                + "      <config><velo:parameterized-template-generator templatePath=\"" + templateDir
+                + "\" warmUp=\"true\" /></config>\n" + "      <artifact name=\"file\" />\n" + "    </generator>\n"
+                + "  </generators>\n" + "</srcgen4j-config>\n", StandardCharsets.UTF_8);
+        final SrcGen4JConfig config = PTGenHelper.createAndInit(new DefaultContext(), configFile);
+        final WarmUpGenerator testee = new WarmUpGenerator();
+        testee.initialize(config.getGenerators().findByName("test"));
+
+        // EXECUTE
+        try {
+            testee.generate(false);
+            fail();
+        } catch (final GenerateException ex) {
+
+            // VERIFY
+            assertThat(ex.getMessage()).startsWith("Error parsing 2 of 3 template(s)");
+            assertThat(ex.getMessage()).contains("broken1.vm", "broken2.vm");
+            assertThat(ex.getMessage()).doesNotContain("ok.vm");
+            assertThat(ex.getCause()).isNotNull();
+            assertThat(ex.getSuppressed()).hasSize(1);
+        }
+        assertThat(testee.rendered).isFalse();
+
+    }
+
+    /**
+     * Uses three templates where two are broken.
+     */
+    static final class WarmUpGenerator extends VelocityGenerator<Object> {
+
+        boolean rendered;
+
+        @Override
+        protected final Set<String> getTemplateNames() {
+            return new LinkedHashSet<>(Arrays.asList("broken1.vm", "ok.vm", "broken2.vm"));
+        }
+
+        @Override
+        protected final void generateIntern() throws GenerateException {
+            rendered = true;
+        }
+
+    }
+
+}
+// CHECKSTYLE:ON
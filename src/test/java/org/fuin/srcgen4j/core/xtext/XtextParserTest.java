@@ -20,11 +20,13 @@ package org.fuin.srcgen4j.core.xtext;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.File;
+import java.util.Collections;
 
 import javax.xml.bind.JAXBContext;
 
 import org.eclipse.emf.common.notify.Notifier;
 import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.xtext.linking.lazy.LazyLinkingResource;
 import org.fuin.srcgen4j.commons.DefaultContext;
@@ -84,6 +86,40 @@ public class XtextParserTest {
 
     }
 
+    @Test
+    public void testParseIncremental() throws Exception {
+
+        Handler.add();
+
+        final DefaultContext context = new DefaultContext();
+        final File dir = new File("src/test/resources/domain");
+        final File modelFile = new File(dir, "xtext-test.xsdsl");
+        final JAXBContext jaxbContext = JAXBContext.newInstance(SrcGen4JConfig.class, XtextParserConfig.class, EMFGeneratorConfig.class);
+        final SrcGen4JConfig srcGen4JConfig = JaxbUtils.unmarshal(new UnmarshallerBuilder().withContext(jaxbContext).build(),
+                new File(dir, "xtext-test-config.xml"));
+        srcGen4JConfig.init(context, new File("."));
+        final ParserConfig config = srcGen4JConfig.getParsers().getList().get(0);
+
+        final XtextParser testee = new XtextParser();
+        testee.initialize(context, config);
+        final ResourceSet full = testee.parse();
+        final int resourceCount = full.getResources().size();
+        final Resource unchanged = full.getResources().stream()
+                .filter(resource -> !resource.getURI().lastSegment().equals(modelFile.getName())).findFirst().get();
+
+        // TEST
+        final ResourceSet incremental = testee.parse(Collections.singleton(modelFile));
+
+        // VERIFY
+        assertThat(incremental).isSameAs(full);
+        assertThat(incremental.getResources()).hasSize(resourceCount);
+        assertThat(incremental.getResources()).contains(unchanged);
+        assertThat(testee.isError()).isFalse();
+        assertThat(testee.getFileFilter().accept(modelFile)).isTrue();
+        assertThat(testee.getFileFilter().accept(new File(dir, "xtext-test-config.xml"))).isFalse();
+
+    }
+
     // CHECKSTYLE:ON
 
 }
@@ -0,0 +1,7 @@
+package ${pkg};
+
+public class ${name} {
+#if($name == "F20")
+    $name.substring(100)
+#end
+}